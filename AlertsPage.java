@@ -0,0 +1,44 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+
+/**
+ * The-internet's JavaScript alerts example.
+ */
+public class AlertsPage extends Page {
+    public static final String URL = "https://the-internet.herokuapp.com/javascript_alerts";
+
+    private final Element alertButton = present(By.xpath("//button[text()='Click for JS Alert']"));
+    private final Element confirmButton = present(By.xpath("//button[text()='Click for JS Confirm']"));
+    private final Element promptButton = present(By.xpath("//button[text()='Click for JS Prompt']"));
+    private final Element result = present(By.id("result"));
+
+    public AlertsPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public AlertsPage open() {
+        driver().get(URL);
+        return this;
+    }
+
+    public Alert openAlert() {
+        alertButton.click();
+        return waits().alert();
+    }
+
+    public Alert openConfirm() {
+        confirmButton.click();
+        return waits().alert();
+    }
+
+    public Alert openPrompt() {
+        promptButton.click();
+        return waits().alert();
+    }
+
+    public Element result() {
+        return result;
+    }
+}
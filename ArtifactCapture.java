@@ -0,0 +1,145 @@
+package com.launchable.demo.artifacts;
+
+import com.launchable.demo.base.TestContext;
+import com.launchable.demo.metrics.CommandMetrics;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Takes screenshots, page source and browser console logs from a session and hands them to
+ * the {@link ArtifactWriter}.
+ *
+ * <p>Asking the browser is a WebDriver round trip and has to happen on the test thread while
+ * the page is still there; it is timed as {@code artifact.capture}. Everything after that
+ * is timed as {@code artifact.handoff} and is the overhead this class adds to a test.
+ */
+public final class ArtifactCapture {
+    /**
+     * {@code ITestResult} attribute listing a test's artifacts for the report.
+     */
+    public static final String RESULT_ATTRIBUTE = "artifacts";
+
+    private ArtifactCapture() {
+    }
+
+    /**
+     * Captures the state a test failed in.
+     *
+     * @param sinceMillis wall-clock start of the test; older console entries belong to
+     *                    earlier tests on the same pooled browser
+     */
+    public static List<ArtifactWriter.Artifact> failure(WebDriver driver, String test, long sinceMillis) {
+        List<ArtifactWriter.Artifact> artifacts = new ArrayList<>();
+        screenshot(driver, test, "failure", artifacts);
+
+        long start = System.nanoTime();
+        String source = null;
+        try {
+            source = driver.getPageSource();
+        } catch (WebDriverException e) {
+            // A crashed or closed window has no source
+        }
+        List<LogEntry> console = null;
+        try {
+            console = driver.manage().logs().get(LogType.BROWSER).getAll();
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            // Not all drivers serve logs
+        }
+        CommandMetrics.getInstance().record("artifact.capture", System.nanoTime() - start);
+
+        long handoff = System.nanoTime();
+        if (source != null) {
+            String html = source;
+            add(artifacts, ArtifactWriter.getInstance().submit(test, "page-source", "html", true,
+                () -> html.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (console != null) {
+            List<LogEntry> entries = console;
+            add(artifacts, ArtifactWriter.getInstance().submit(test, "console", "log", true,
+                () -> entries.stream()
+                    .filter(entry -> entry.getTimestamp() >= sinceMillis)
+                    .map(LogEntry::toString)
+                    .collect(Collectors.joining("\n", "", "\n"))
+                    .getBytes(StandardCharsets.UTF_8)));
+        }
+        CommandMetrics.getInstance().record("artifact.handoff", System.nanoTime() - handoff);
+        return artifacts;
+    }
+
+    private static void screenshot(WebDriver driver, String test, String label, List<ArtifactWriter.Artifact> artifacts) {
+        if (!(driver instanceof TakesScreenshot)) {
+            return;
+        }
+        long start = System.nanoTime();
+        String png;
+        try {
+            // Base64 is what the wire carries; decoding it is left to the writer
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BASE64);
+        } catch (WebDriverException e) {
+            return;
+        } finally {
+            CommandMetrics.getInstance().record("artifact.capture", System.nanoTime() - start);
+        }
+        long handoff = System.nanoTime();
+        // PNG is already compressed; gzip would only cost time
+        add(artifacts, ArtifactWriter.getInstance().submit(test, "screenshot-" + label, "png", false,
+            () -> Base64.getMimeDecoder().decode(png)));
+        CommandMetrics.getInstance().record("artifact.handoff", System.nanoTime() - handoff);
+    }
+
+    private static void add(List<ArtifactWriter.Artifact> artifacts, ArtifactWriter.Artifact artifact) {
+        if (artifact != null) {
+            artifacts.add(artifact);
+        }
+    }
+
+    /**
+     * Screenshots every page a test navigates to, as step artifacts for its report.
+     */
+    public static final class StepListener implements WebDriverListener {
+        private final WebDriver session;
+        private final List<ArtifactWriter.Artifact> artifacts;
+        private int steps;
+
+        /**
+         * @param session   the undecorated driver, so the screenshots are not reported as
+         *                  test commands
+         * @param artifacts where the screenshots are listed for the test's report
+         */
+        public StepListener(WebDriver session, List<ArtifactWriter.Artifact> artifacts) {
+            this.session = session;
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        public void afterGet(WebDriver driver, String url) {
+            step();
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, String url) {
+            step();
+        }
+
+        @Override
+        public void afterTo(WebDriver.Navigation navigation, URL url) {
+            step();
+        }
+
+        private void step() {
+            screenshot(session, TestContext.current().getTestName(), "step" + (++steps), artifacts);
+        }
+    }
+}
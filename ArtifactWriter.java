@@ -0,0 +1,185 @@
+package com.launchable.demo.artifacts;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes test artifacts to disk on a background thread, under {@code artifacts.dir}
+ * (default {@code target/surefire-reports/artifacts}), one directory per test.
+ *
+ * <p>Test threads only hand over what the browser returned; decoding, compressing and file
+ * I/O happen here. The queue holds {@code artifacts.queue} (default 32) artifacts; when it
+ * is full new ones are dropped and counted rather than making a test wait.
+ */
+public final class ArtifactWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactWriter.class);
+    private static final ArtifactWriter INSTANCE = new ArtifactWriter(
+        Paths.get(System.getProperty("artifacts.dir", "target/surefire-reports/artifacts")),
+        Integer.getInteger("artifacts.queue", 32));
+
+    private final Path dir;
+    private final BlockingQueue<Job> queue;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong handoffNanos = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    private ArtifactWriter(Path dir, int capacity) {
+        this.dir = dir;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        Thread thread = new Thread(this::run, "artifact-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static ArtifactWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues an artifact of {@code test} without blocking.
+     *
+     * @param content produces the bytes to write; called on the writer thread
+     * @param gzip    whether to compress them, which adds {@code .gz} to the file name
+     * @return where the artifact will be written, or {@code null} when the queue was full
+     */
+    public Artifact submit(String test, String kind, String extension, boolean gzip, Supplier<byte[]> content) {
+        long start = System.nanoTime();
+        String name = String.format("%03d-%s.%s%s", sequence.incrementAndGet(), kind, extension, gzip ? ".gz" : "");
+        Artifact artifact = new Artifact(kind, dir.resolve(safe(test)).resolve(name).toAbsolutePath());
+        pending.incrementAndGet();
+        if (!queue.offer(new Job(artifact, gzip, content))) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            artifact = null;
+        }
+        handoffNanos.addAndGet(System.nanoTime() - start);
+        return artifact;
+    }
+
+    /**
+     * Waits up to {@code millis} for queued artifacts to be written.
+     *
+     * @return whether everything queued so far is on disk
+     */
+    public boolean drain(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return pending.get() == 0;
+    }
+
+    public int getWritten() {
+        return written.get();
+    }
+
+    public int getDropped() {
+        return dropped.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Time test threads spent handing artifacts over, in total.
+     */
+    public long getHandoffNanos() {
+        return handoffNanos.get();
+    }
+
+    /**
+     * Time the writer thread spent encoding, compressing and writing, in total.
+     */
+    public long getWriteNanos() {
+        return writeNanos.get();
+    }
+
+    private void run() {
+        while (true) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                Path file = job.artifact.getPath();
+                Files.createDirectories(file.getParent());
+                byte[] content = job.content.get();
+                try (OutputStream out = job.gzip
+                    ? new GZIPOutputStream(Files.newOutputStream(file))
+                    : Files.newOutputStream(file)) {
+                    out.write(content);
+                }
+                bytes.addAndGet(Files.size(file));
+                written.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Could not write {}: {}", job.artifact.getPath(), e.getMessage());
+            } finally {
+                writeNanos.addAndGet(System.nanoTime() - start);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private static String safe(String name) {
+        return name.replaceAll("[^\\w.-]", "_");
+    }
+
+    /**
+     * An artifact file and what it holds, e.g. {@code screenshot} or {@code page-source}.
+     */
+    public static final class Artifact {
+        private final String kind;
+        private final Path path;
+
+        private Artifact(String kind, Path path) {
+            this.kind = kind;
+            this.path = path;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+    }
+
+    private static final class Job {
+        private final Artifact artifact;
+        private final boolean gzip;
+        private final Supplier<byte[]> content;
+
+        private Job(Artifact artifact, boolean gzip, Supplier<byte[]> content) {
+            this.artifact = artifact;
+            this.gzip = gzip;
+            this.content = content;
+        }
+    }
+}
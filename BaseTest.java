@@ -1,60 +1,200 @@
 package com.launchable.demo.base;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.launchable.demo.artifacts.ArtifactCapture;
+import com.launchable.demo.artifacts.ArtifactWriter;
+import com.launchable.demo.metrics.CommandMetrics;
+import com.launchable.demo.metrics.LatencyListener;
+import com.launchable.demo.metrics.PageLoadListener;
+import com.launchable.demo.metrics.PageLoadMetrics;
+import com.launchable.demo.metrics.TestDurations;
+import com.launchable.demo.network.NetworkCache;
+import com.launchable.demo.pages.ElementCache;
+import com.launchable.demo.pages.NavigationEpoch;
+import com.launchable.demo.selection.CoverageListener;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
 
-import java.time.Duration;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Binds a pooled browser and its {@link Waits} to the thread running the current test method.
+ *
+ * <p>TestNG runs a method's {@code @BeforeMethod}, body and {@code @AfterMethod} on the
+ * same worker thread, so keeping the session in a {@link ThreadLocal} lets one test
+ * class instance serve several methods concurrently under {@code parallel="methods"}.
+ *
+ * <p>Unless {@code -Dmetrics.enabled=false}, the driver handed to tests is wrapped in an
+ * {@link EventFiringDecorator} that times every command into {@link CommandMetrics}.
+ * Unless {@code -Dperf.capture=false}, every navigation is also sampled into
+ * {@link PageLoadMetrics} and checked against the performance budgets. Under
+ * {@code -Dnetwork.mode=replay} navigations are routed to the local {@link NetworkCache}.
+ * Unless {@code -Dselect.record=false}, the pages and locators each test touches are
+ * recorded for change-based selection. Under {@code -Dtest.threads=adaptive} a test waits
+ * for the {@link ConcurrencyController} before leasing its browser. Tests outside the smoke
+ * stage first wait for their {@link SmokeGate}, and are skipped once it has shut.
+ *
+ * <p>Unless {@code -Dartifacts.enabled=false}, a failed test leaves a screenshot, the page
+ * source and the browser console log behind; {@code -Dartifacts.steps=true} also
+ * screenshots every page it navigates to. They are listed on the test's result for the
+ * HTML report.
+ */
 public class BaseTest {
-    protected WebDriver driver;
-    
-    @BeforeMethod
+    private static final boolean METRICS_ENABLED = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    private static final boolean PERF_CAPTURE = Boolean.parseBoolean(System.getProperty("perf.capture", "true"));
+    private static final boolean COVERAGE_RECORDING = Boolean.parseBoolean(System.getProperty("select.record", "true"));
+    private static final boolean FAILURE_ARTIFACTS = Boolean.parseBoolean(System.getProperty("artifacts.enabled", "true"));
+    private static final boolean STEP_ARTIFACTS = Boolean.parseBoolean(System.getProperty("artifacts.steps", "false"));
+    private static final LatencyListener LATENCY_LISTENER = new LatencyListener();
+    private static final CoverageListener COVERAGE_LISTENER = new CoverageListener();
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+    @BeforeMethod(alwaysRun = true)
     @Parameters({"browser", "headless"})
-    public void setUp(String browser, String headless) {
-        setupDriver(browser, Boolean.parseBoolean(headless));
-        driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-    }
-    
-    private void setupDriver(String browser, boolean headless) {
-        switch (browser.toLowerCase()) {
-            case "chrome":
-                WebDriverManager.chromedriver().setup();
-                ChromeOptions chromeOptions = new ChromeOptions();
-                if (headless) {
-                    chromeOptions.addArguments("--headless");
-                }
-                chromeOptions.addArguments("--no-sandbox");
-                chromeOptions.addArguments("--disable-dev-shm-usage");
-                chromeOptions.addArguments("--disable-gpu");
-                driver = new ChromeDriver(chromeOptions);
-                break;
-                
-            case "firefox":
-                WebDriverManager.firefoxdriver().setup();
-                FirefoxOptions firefoxOptions = new FirefoxOptions();
-                if (headless) {
-                    firefoxOptions.addArguments("--headless");
-                }
-                driver = new FirefoxDriver(firefoxOptions);
-                break;
-                
-            default:
-                throw new IllegalArgumentException("Browser not supported: " + browser);
-        }
-    }
-    
-    @AfterMethod
-    public void tearDown() {
-        if (driver != null) {
-            driver.quit();
-        }
-    }
-}
\ No newline at end of file
+    public void setUp(Method method, ITestContext block, String browser, String headless) {
+        Test test = method.getAnnotation(Test.class);
+        TestContext.bind(new TestContext(getClass().getSimpleName(), method.getName(),
+            test != null ? test.groups() : new String[0], browser));
+        // Violations left behind by a test that never got to run belong to nobody
+        PageLoadMetrics.getInstance().drainViolations();
+
+        // Before the clock starts: waiting for smoke tests says nothing about this test
+        SmokeGate.getInstance().enter(block.getName());
+        long start = System.nanoTime();
+        boolean acquired = false;
+        WebDriver leased = null;
+        try {
+            ConcurrencyController.getInstance().acquire();
+            acquired = true;
+            leased = DriverPool.getInstance().lease(browser, Boolean.parseBoolean(headless));
+            BrowserProfile.current().onLease(leased, TestContext.current().getGroups());
+            NetworkCache.getInstance().attach(leased);
+            CommandMetrics.getInstance().record("pool.lease", System.nanoTime() - start);
+
+            List<ArtifactWriter.Artifact> artifacts = new ArrayList<>();
+            NavigationEpoch navigations = new NavigationEpoch();
+            SESSION.set(new Session(leased, decorate(leased, artifacts, navigations),
+                TimeoutModel.profile(browser, Boolean.parseBoolean(headless)), artifacts, navigations, start));
+        } catch (RuntimeException e) {
+            // tearDown only gives the browser and slots back for a test that got its session
+            if (leased != null) {
+                DriverPool.getInstance().release(leased);
+            }
+            if (acquired) {
+                ConcurrencyController.getInstance().release();
+            }
+            SmokeGate.getInstance().leave();
+            throw e;
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        Session session = SESSION.get();
+        SESSION.remove();
+        if (session != null) {
+            if (FAILURE_ARTIFACTS && result.getStatus() == ITestResult.FAILURE) {
+                session.artifacts.addAll(ArtifactCapture.failure(session.leased,
+                    TestContext.current().getTestName(), session.startMillis));
+            }
+            if (!session.artifacts.isEmpty()) {
+                result.setAttribute(ArtifactCapture.RESULT_ATTRIBUTE, session.artifacts);
+            }
+            long elapsed = System.nanoTime() - session.startNanos;
+            CommandMetrics.getInstance().recordTest(TestContext.current().getTestName(), elapsed);
+            if (result.isSuccess()) {
+                // Failures end early or on a timeout; neither says how long the test takes
+                TestDurations.getInstance().record(TestContext.current().getTestName(), elapsed / 1_000_000);
+            }
+            DriverPool.getInstance().release(session.leased);
+            ConcurrencyController.getInstance().release();
+            SmokeGate.getInstance().leave();
+        }
+        TestContext.clear();
+    }
+
+    private static WebDriver decorate(WebDriver leased, List<ArtifactWriter.Artifact> artifacts,
+                                      NavigationEpoch navigations) {
+        // Innermost, so listeners see the URLs tests asked for rather than replay addresses
+        WebDriver routed = NetworkCache.getInstance().decorate(leased);
+        List<WebDriverListener> listeners = new ArrayList<>();
+        // Page objects must never serve an element from a page that has been navigated away from
+        listeners.add(navigations);
+        // Every origin the test visits has its storage cleared when the browser goes back
+        listeners.add(DriverPool.getInstance().originTracker(leased));
+        if (METRICS_ENABLED) {
+            listeners.add(LATENCY_LISTENER);
+        }
+        if (PERF_CAPTURE) {
+            listeners.add(new PageLoadListener(leased));
+        }
+        if (COVERAGE_RECORDING) {
+            listeners.add(COVERAGE_LISTENER);
+        }
+        if (STEP_ARTIFACTS) {
+            listeners.add(new ArtifactCapture.StepListener(leased, artifacts));
+        }
+        WebDriver decorated = new EventFiringDecorator<>(listeners.toArray(new WebDriverListener[0])).decorate(routed);
+        // Outermost, so a cancelled test stops before its next command reaches any listener
+        return SmokeGate.getInstance().decorate(decorated);
+    }
+
+    protected WebDriver driver() {
+        return session().driver;
+    }
+
+    protected BulkQuery bulk() {
+        return new BulkQuery(driver());
+    }
+
+    protected Waits waits() {
+        return session().waits;
+    }
+
+    /**
+     * The element cache page objects for this test's browser are built on.
+     */
+    protected ElementCache elements() {
+        return session().elements;
+    }
+
+    private static Session session() {
+        Session session = SESSION.get();
+        if (session == null) {
+            throw new IllegalStateException("No browser bound to thread " + Thread.currentThread().getName());
+        }
+        return session;
+    }
+
+    /**
+     * The browser leased for one test: the pool's own handle, which goes back to the pool,
+     * and the possibly decorated driver the test talks to.
+     */
+    private static final class Session {
+        private final WebDriver leased;
+        private final WebDriver driver;
+        private final Waits waits;
+        private final ElementCache elements;
+        private final List<ArtifactWriter.Artifact> artifacts;
+        private final long startNanos;
+        private final long startMillis = System.currentTimeMillis();
+
+        private Session(WebDriver leased, WebDriver driver, String profile, List<ArtifactWriter.Artifact> artifacts,
+                        NavigationEpoch navigations, long startNanos) {
+            this.leased = leased;
+            this.driver = driver;
+            this.waits = new Waits(driver, Waits.DEFAULT_TIMEOUT, profile);
+            this.elements = new ElementCache(driver, waits, navigations);
+            this.artifacts = artifacts;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.metrics.BenchmarkResults;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the {@link BenchmarkResults} to {@code benchmark.json}, as one latency and
+ * throughput curve over list size per entry mode and operation, and to
+ * {@code benchmark.csv} with one row per point, in the TestNG output directory. Each curve
+ * is also logged on one line.
+ */
+public class BenchmarkReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(BenchmarkReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        BenchmarkResults results = BenchmarkResults.getInstance();
+        if (results.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, List<Object>>> curves = new LinkedHashMap<>();
+        Map<String, StringBuilder> lines = new LinkedHashMap<>();
+        List<BenchmarkResults.Point> points = results.points();
+        for (BenchmarkResults.Point point : points) {
+            curves.computeIfAbsent(point.getMode(), k -> new LinkedHashMap<>())
+                .computeIfAbsent(point.getOperation(), k -> new ArrayList<>())
+                .add(point.toMap());
+            lines.computeIfAbsent(point.getMode() + " " + point.getOperation(), k -> new StringBuilder())
+                .append(String.format(Locale.ROOT, "  %d: %.1f ms", point.getSize(), point.getMeanMillis()));
+        }
+        lines.forEach((curve, line) -> LOG.info("Benchmark {}:{}", curve, line));
+
+        Path json = Paths.get(outputDirectory, "benchmark.json");
+        Path csv = Paths.get(outputDirectory, "benchmark.csv");
+        try {
+            Files.createDirectories(json.getParent());
+            Files.write(json, new Json().toJson(curves).getBytes(StandardCharsets.UTF_8));
+            try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                out.write("mode,operation,size,samples,meanMs,medianMs,minMs,maxMs,stdevMs,perSecond\n");
+                for (BenchmarkResults.Point point : points) {
+                    out.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                        point.getMode(), point.getOperation(), point.getSize(), point.getSamples(),
+                        point.getMeanMillis(), point.getMedianMillis(), point.getMinMillis(),
+                        point.getMaxMillis(), point.getStdevMillis(), point.getThroughput()));
+                }
+            }
+            LOG.info("Benchmark results: {}", json);
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", json, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.launchable.demo.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies measured by benchmark tests, kept per entry mode, operation and list size so
+ * they can be reported as curves over size.
+ *
+ * <p>Benchmarks record only their measured iterations; warmup iterations are run and
+ * thrown away by the benchmark itself. Samples are kept exactly, there are only a handful
+ * per point.
+ */
+public final class BenchmarkResults {
+    /**
+     * Operation name for filling the list; its throughput is in items rather than operations.
+     */
+    public static final String FILL = "fill";
+
+    private static final BenchmarkResults INSTANCE = new BenchmarkResults();
+
+    // mode -> operation -> size -> nanos
+    private final Map<String, Map<String, Map<Integer, List<Long>>>> samples = new TreeMap<>();
+
+    private BenchmarkResults() {
+    }
+
+    public static BenchmarkResults getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void record(String mode, String operation, int size, long nanos) {
+        samples.computeIfAbsent(mode, k -> new LinkedHashMap<>())
+            .computeIfAbsent(operation, k -> new TreeMap<>())
+            .computeIfAbsent(size, k -> new ArrayList<>())
+            .add(nanos);
+    }
+
+    public synchronized boolean isEmpty() {
+        return samples.isEmpty();
+    }
+
+    /**
+     * One point per mode, operation and size, in that order, summarised in milliseconds.
+     */
+    public synchronized List<Point> points() {
+        List<Point> points = new ArrayList<>();
+        samples.forEach((mode, operations) -> operations.forEach((operation, sizes) ->
+            sizes.forEach((size, nanos) -> points.add(new Point(mode, operation, size, nanos)))));
+        return points;
+    }
+
+    /**
+     * The summary of one mode, operation and size.
+     */
+    public static final class Point {
+        private final String mode;
+        private final String operation;
+        private final int size;
+        private final int samples;
+        private final double meanMillis;
+        private final double medianMillis;
+        private final double minMillis;
+        private final double maxMillis;
+        private final double stdevMillis;
+
+        private Point(String mode, String operation, int size, List<Long> nanos) {
+            this.mode = mode;
+            this.operation = operation;
+            this.size = size;
+            List<Long> sorted = new ArrayList<>(nanos);
+            Collections.sort(sorted);
+            this.samples = sorted.size();
+            double sum = 0;
+            for (long value : sorted) {
+                sum += value;
+            }
+            double mean = sum / samples;
+            double squares = 0;
+            for (long value : sorted) {
+                squares += (value - mean) * (value - mean);
+            }
+            this.meanMillis = mean / 1e6;
+            this.medianMillis = (samples % 2 == 1
+                ? sorted.get(samples / 2)
+                : (sorted.get(samples / 2 - 1) + sorted.get(samples / 2)) / 2.0) / 1e6;
+            this.minMillis = sorted.get(0) / 1e6;
+            this.maxMillis = sorted.get(samples - 1) / 1e6;
+            this.stdevMillis = samples > 1 ? Math.sqrt(squares / (samples - 1)) / 1e6 : 0;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getMedianMillis() {
+            return medianMillis;
+        }
+
+        public double getMinMillis() {
+            return minMillis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public double getStdevMillis() {
+            return stdevMillis;
+        }
+
+        /**
+         * Items added per second for {@link #FILL}, operations per second otherwise.
+         */
+        public double getThroughput() {
+            if (meanMillis <= 0) {
+                return 0;
+            }
+            return (operation.equals(FILL) ? size : 1) * 1000 / meanMillis;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("size", size);
+            map.put("samples", samples);
+            map.put("meanMs", round(meanMillis));
+            map.put("medianMs", round(medianMillis));
+            map.put("minMs", round(minMillis));
+            map.put("maxMs", round(maxMillis));
+            map.put("stdevMs", round(stdevMillis));
+            map.put(operation.equals(FILL) ? "itemsPerSecond" : "opsPerSecond", round(getThroughput()));
+            return map;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
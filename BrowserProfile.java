@@ -0,0 +1,173 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * How much of each page the browser bothers to load, chosen with {@code -Dbrowser.profile}.
+ *
+ * <p>{@code default} leaves the browser alone. {@code fast} returns from navigations at
+ * {@code DOMContentLoaded} ({@link PageLoadStrategy#EAGER}) and skips images, fonts, media and
+ * analytics scripts. On Chromium the blocking is done per lease with CDP
+ * {@code Network.setBlockedURLs}, so it can follow the rules file ({@code -Dbrowser.profile.rules},
+ * default {@code browser-profile.properties}):
+ *
+ * <pre>
+ * block=*cdn.example.com/ads/*
+ * allow=*.svg
+ * group.hovers.allow=*.jpg
+ * group.smoke.block=*.css
+ * </pre>
+ *
+ * <p>{@code block} patterns are added to the built-in list, {@code allow} patterns take an
+ * identical pattern back off it; the {@code group.} forms only apply to tests in that TestNG
+ * group. Firefox has no CDP, so it gets the eager strategy and session-wide image, font and
+ * autoplay preferences instead, and the rules file does not apply to it.
+ */
+public final class BrowserProfile {
+    private static final Logger LOG = LoggerFactory.getLogger(BrowserProfile.class);
+    private static final BrowserProfile CURRENT = load(System.getProperty("browser.profile", "default"));
+
+    private static final List<String> DEFAULT_BLOCKED = List.of(
+        "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico",
+        "*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot",
+        "*.mp4", "*.webm", "*.ogg", "*.mp3", "*.wav",
+        "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*", "*facebook.net*",
+        "*hotjar.com*", "*segment.io*", "*optimizely.com*", "*nr-data.net*");
+
+    private final String name;
+    private final boolean fast;
+    private final Properties rules;
+    private final Map<WebDriver, List<String>> applied = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private BrowserProfile(String name, boolean fast, Properties rules) {
+        this.name = name;
+        this.fast = fast;
+        this.rules = rules;
+    }
+
+    public static BrowserProfile current() {
+        return CURRENT;
+    }
+
+    private static BrowserProfile load(String name) {
+        String profile = name.trim().toLowerCase();
+        switch (profile) {
+            case "default":
+                return new BrowserProfile(profile, false, new Properties());
+            case "fast":
+                return new BrowserProfile(profile, true, loadRules());
+            default:
+                throw new IllegalArgumentException("Unknown browser.profile: " + name + " (expected default or fast)");
+        }
+    }
+
+    private static Properties loadRules() {
+        Properties rules = new Properties();
+        Path file = Paths.get(System.getProperty("browser.profile.rules", "browser-profile.properties"));
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                rules.load(reader);
+            } catch (IOException e) {
+                LOG.warn("Could not read browser profile rules from {}: {}", file, e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFast() {
+        return fast;
+    }
+
+    void apply(ChromeOptions options) {
+        if (fast) {
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        }
+    }
+
+    void apply(FirefoxOptions options) {
+        if (fast) {
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+            options.addPreference("permissions.default.image", 2);
+            options.addPreference("browser.display.use_document_fonts", 0);
+            options.addPreference("media.autoplay.default", 5);
+        }
+    }
+
+    /**
+     * Points a freshly leased session's URL blocking at the current test's groups. The CDP
+     * call is skipped when the session already blocks exactly that list.
+     */
+    void onLease(WebDriver driver, Collection<String> groups) {
+        if (!fast || !(driver instanceof HasCdp)) {
+            return;
+        }
+        List<String> blocked = blockedUrls(groups);
+        if (blocked.equals(applied.get(driver))) {
+            return;
+        }
+        try {
+            HasCdp cdp = (HasCdp) driver;
+            if (!applied.containsKey(driver)) {
+                cdp.executeCdpCommand("Network.enable", Map.of());
+            }
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blocked));
+            applied.put(driver, blocked);
+        } catch (WebDriverException e) {
+            LOG.warn("Could not apply the {} profile's URL blocking: {}", name, e.getMessage());
+        }
+    }
+
+    private List<String> blockedUrls(Collection<String> groups) {
+        Set<String> blocked = new LinkedHashSet<>(DEFAULT_BLOCKED);
+        blocked.addAll(patterns("block"));
+        for (String group : groups) {
+            blocked.addAll(patterns("group." + group + ".block"));
+        }
+        blocked.removeAll(patterns("allow"));
+        for (String group : groups) {
+            blocked.removeAll(patterns("group." + group + ".allow"));
+        }
+        return new ArrayList<>(blocked);
+    }
+
+    private List<String> patterns(String key) {
+        String value = rules.getProperty(key, "").trim();
+        if (value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : value.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(pattern.trim());
+            }
+        }
+        return patterns;
+    }
+}
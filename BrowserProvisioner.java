@@ -0,0 +1,176 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Launches browsers in the background so that a test needing a fresh session
+ * usually finds one already started.
+ *
+ * <p>{@code driver.provision.ahead} (default 2) browsers per {@link BrowserSpec} are kept
+ * launching or launched ahead of demand on a small daemon executor. A take that finds a
+ * finished launch is a hit; one that has to wait for a launch, or start its own, is a miss.
+ * Hit/miss counts and the time spent waiting are logged at shutdown to help size the
+ * look-ahead. Set it to 0 to launch synchronously on demand.
+ */
+public final class BrowserProvisioner {
+    private static final Logger LOG = LoggerFactory.getLogger(BrowserProvisioner.class);
+
+    private final int ahead;
+    private final ExecutorService executor;
+    private final Map<BrowserSpec, Deque<Future<WebDriver>>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    BrowserProvisioner(int ahead) {
+        this.ahead = Math.max(0, ahead);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.ahead), runnable -> {
+            Thread thread = new Thread(runnable, "browser-provisioner-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns a freshly launched browser, then schedules a replacement launch.
+     */
+    public WebDriver take(BrowserSpec spec) {
+        long start = System.nanoTime();
+        replenish(spec);
+        Future<WebDriver> launch = queue(spec).pollFirst();
+        // Start the replacement before blocking so it overlaps with our own wait
+        replenish(spec);
+        boolean ready = launch != null && launch.isDone();
+        WebDriver driver = launch != null ? await(launch) : null;
+        if (driver == null) {
+            ready = false;
+            driver = DriverFactory.create(spec);
+        }
+        if (ready) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            recordWait(System.nanoTime() - start);
+        }
+        return driver;
+    }
+
+    /**
+     * Tops the look-ahead queue for {@code spec} back up to the configured depth.
+     */
+    public void replenish(BrowserSpec spec) {
+        Deque<Future<WebDriver>> queue = queue(spec);
+        synchronized (queue) {
+            while (queue.size() < ahead) {
+                queue.offerLast(executor.submit(() -> DriverFactory.create(spec)));
+            }
+        }
+    }
+
+    /**
+     * Quits the browsers whose launch has finished but which nobody has taken yet; launches
+     * still running are left to finish. The look-ahead is topped back up on the next take.
+     *
+     * @return how many browsers were quit
+     */
+    public int discardReady() {
+        int discarded = 0;
+        for (Deque<Future<WebDriver>> queue : pending.values()) {
+            List<Future<WebDriver>> ready = new ArrayList<>();
+            synchronized (queue) {
+                for (Iterator<Future<WebDriver>> launches = queue.iterator(); launches.hasNext(); ) {
+                    Future<WebDriver> launch = launches.next();
+                    if (launch.isDone() && queue.removeFirstOccurrence(launch)) {
+                        ready.add(launch);
+                    }
+                }
+            }
+            for (Future<WebDriver> launch : ready) {
+                WebDriver driver = await(launch);
+                if (driver != null) {
+                    discarded++;
+                    try {
+                        DriverFactory.quit(driver);
+                    } catch (WebDriverException e) {
+                        LOG.warn("Failed to quit provisioned browser: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+        return discarded;
+    }
+
+    public void shutdown() {
+        // Let in-flight launches finish so their browsers can be quit rather than orphaned
+        executor.shutdown();
+        List<Future<WebDriver>> leftovers = new ArrayList<>();
+        for (Deque<Future<WebDriver>> queue : pending.values()) {
+            Future<WebDriver> launch;
+            while ((launch = queue.pollFirst()) != null) {
+                leftovers.add(launch);
+            }
+        }
+        int unused = 0;
+        for (Future<WebDriver> launch : leftovers) {
+            WebDriver driver = await(launch);
+            if (driver != null) {
+                unused++;
+                try {
+                    DriverFactory.quit(driver);
+                } catch (WebDriverException e) {
+                    LOG.warn("Failed to quit provisioned browser: {}", e.getMessage());
+                }
+            }
+        }
+        int takes = hits.get() + misses.get();
+        if (takes > 0) {
+            LOG.info("Browser provisioner (ahead={}): {} hits, {} misses, waited {} ms total / {} ms max, {} launched but unused",
+                ahead, hits.get(), misses.get(),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                unused);
+        }
+    }
+
+    private Deque<Future<WebDriver>> queue(BrowserSpec spec) {
+        return pending.computeIfAbsent(spec, s -> new ConcurrentLinkedDeque<>());
+    }
+
+    private void recordWait(long nanos) {
+        waitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static WebDriver await(Future<WebDriver> launch) {
+        try {
+            return launch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            launch.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            LOG.warn("Background browser launch failed, launching on demand: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.launchable.demo.base;
+
+import java.util.Objects;
+
+/**
+ * Identifies an interchangeable kind of browser session: two sessions with the same
+ * spec can serve the same tests.
+ */
+public final class BrowserSpec {
+    private final String browser;
+    private final boolean headless;
+
+    public BrowserSpec(String browser, boolean headless) {
+        this.browser = browser.toLowerCase();
+        this.headless = headless;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BrowserSpec)) {
+            return false;
+        }
+        BrowserSpec other = (BrowserSpec) o;
+        return headless == other.headless && browser.equals(other.browser);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(browser, headless);
+    }
+
+    @Override
+    public String toString() {
+        return browser + (headless ? ":headless" : ":headed");
+    }
+}
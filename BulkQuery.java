@@ -0,0 +1,190 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads every element matching a locator in a single {@code executeScript} call, and clicks
+ * a list of elements in a single W3C action sequence.
+ *
+ * <p>Reading the text of twenty elements through {@link org.openqa.selenium.WebElement} costs
+ * twenty-one commands (one lookup plus one per element); here it costs one, which matters most
+ * against a remote Grid where each command is a network round-trip. Queries do not wait:
+ * wait for the elements with {@link Waits} first.
+ *
+ * <p>Clicks are never made from a script, which would skip what a real click goes through
+ * (scrolling, hit testing, the element being covered). {@link #click} instead sends one
+ * {@code performActions} command in which a pointer scrolls to, moves over and clicks each
+ * element in turn, so the page sees real input events and twenty clicks still cost one
+ * command after the lookup.
+ */
+public final class BulkQuery {
+    private static final String FIND_ALL = InPageLocators.FUNCTIONS + "\n" + String.join("\n",
+        "function findAll(using, value) {",
+        "  var css = toCss(using, value);",
+        "  if (css !== null) { return Array.prototype.slice.call(document.querySelectorAll(css)); }",
+        "  if (using === 'xpath') {",
+        "    var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);",
+        "    var nodes = [];",
+        "    for (var i = 0; i < snapshot.snapshotLength; i++) { nodes.push(snapshot.snapshotItem(i)); }",
+        "    return nodes;",
+        "  }",
+        "  return Array.prototype.filter.call(document.getElementsByTagName('a'), function (a) {",
+        "    return linkMatches(using, value, a);",
+        "  });",
+        "}",
+        "var elements = findAll(arguments[0], arguments[1]);");
+
+    private static final String READ_SCRIPT = FIND_ALL + "\n" + String.join("\n",
+        "var attributes = arguments[2];",
+        "return elements.map(function (el) {",
+        "  var state = {",
+        "    text: (el.innerText || '').trim(),",
+        "    selected: !!(el.checked || el.selected),",
+        "    displayed: el.getClientRects().length > 0,",
+        "    attributes: {}",
+        "  };",
+        "  attributes.forEach(function (name) { state.attributes[name] = el.getAttribute(name); });",
+        "  return state;",
+        "});");
+
+    private final WebDriver driver;
+
+    public BulkQuery(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public List<String> texts(By locator) {
+        List<String> texts = new ArrayList<>();
+        for (ElementState state : states(locator)) {
+            texts.add(state.getText());
+        }
+        return texts;
+    }
+
+    public List<String> attributes(By locator, String attribute) {
+        List<String> values = new ArrayList<>();
+        for (ElementState state : states(locator, attribute)) {
+            values.add(state.getAttribute(attribute));
+        }
+        return values;
+    }
+
+    public List<Boolean> selected(By locator) {
+        List<Boolean> selected = new ArrayList<>();
+        for (ElementState state : states(locator)) {
+            selected.add(state.isSelected());
+        }
+        return selected;
+    }
+
+    /**
+     * Returns text, selection, visibility and the requested attributes of every match.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ElementState> states(By locator, String... attributes) {
+        Object result = execute(READ_SCRIPT, locator, List.of(attributes));
+        if (!(result instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<ElementState> states = new ArrayList<>();
+        for (Object item : (List<Object>) result) {
+            states.add(new ElementState((Map<String, Object>) item));
+        }
+        return states;
+    }
+
+    /**
+     * Clicks every match in document order; see {@link #click}.
+     *
+     * @return how many elements were clicked
+     */
+    public int clickAll(By locator) {
+        return click(driver.findElements(locator));
+    }
+
+    /**
+     * Clicks the first {@code limit} matches in document order; see {@link #click}.
+     *
+     * @return how many elements were clicked
+     */
+    public int clickFirst(By locator, int limit) {
+        List<WebElement> matches = driver.findElements(locator);
+        return click(matches.subList(0, Math.max(0, Math.min(limit, matches.size()))));
+    }
+
+    /**
+     * Clicks {@code elements} in order with a single action sequence. Unlike
+     * {@link WebElement#click()} nothing checks between clicks that the next element is still
+     * there, so use it where the clicks do not replace the elements that follow.
+     *
+     * @return how many elements were clicked
+     */
+    public int click(List<? extends WebElement> elements) {
+        if (elements.isEmpty()) {
+            return 0;
+        }
+        Actions actions = new Actions(driver);
+        for (WebElement element : elements) {
+            actions.scrollToElement(element).moveToElement(element).click();
+        }
+        actions.perform();
+        return elements.size();
+    }
+
+    private Object execute(String script, By locator, Object argument) {
+        if (!(locator instanceof By.Remotable)) {
+            throw new IllegalArgumentException("Bulk queries need a remotable locator: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        if (!InPageLocators.STRATEGIES.contains(parameters.using())) {
+            throw new IllegalArgumentException("Bulk queries do not support the locator strategy of " + locator);
+        }
+        return ((JavascriptExecutor) driver).executeScript(script,
+            parameters.using(), String.valueOf(parameters.value()), argument);
+    }
+
+    /**
+     * What a bulk read saw of one element.
+     */
+    public static final class ElementState {
+        private final String text;
+        private final boolean selected;
+        private final boolean displayed;
+        private final Map<String, Object> attributes;
+
+        @SuppressWarnings("unchecked")
+        private ElementState(Map<String, Object> raw) {
+            this.text = String.valueOf(raw.get("text"));
+            this.selected = Boolean.TRUE.equals(raw.get("selected"));
+            this.displayed = Boolean.TRUE.equals(raw.get("displayed"));
+            Object attrs = raw.get("attributes");
+            this.attributes = attrs instanceof Map ? (Map<String, Object>) attrs : Collections.emptyMap();
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public String getAttribute(String name) {
+            Object value = attributes.get(name);
+            return value == null ? null : String.valueOf(value);
+        }
+    }
+}
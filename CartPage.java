@@ -0,0 +1,30 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * The SauceDemo cart.
+ */
+public class CartPage extends Page {
+    private final Element firstItem = present(By.className("cart_item"));
+    private final Element firstItemName = present(By.className("inventory_item_name"));
+    private final Element checkoutButton = present(By.cssSelector("[data-test='checkout']"));
+
+    public CartPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public Element firstItem() {
+        return firstItem;
+    }
+
+    public Element firstItemName() {
+        return firstItemName;
+    }
+
+    public CheckoutPage checkout() {
+        checkoutButton.click();
+        left();
+        return new CheckoutPage(cache());
+    }
+}
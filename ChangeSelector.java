@@ -0,0 +1,104 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.selection.CoverageIndex;
+import com.launchable.demo.selection.ImpactAnalysis;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs only the tests an {@link ImpactAnalysis} says a change can affect, when one of the
+ * {@code select.*} properties describes the change; without them every test runs. Either
+ * way the tests that did run update the {@link CoverageIndex}.
+ *
+ * <p>{@code selection.json} lists every candidate with the reasons it was picked, plus the
+ * analysis confidence, the index coverage of the candidates and how long selecting took.
+ */
+public class ChangeSelector implements IMethodInterceptor, IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeSelector.class);
+
+    private final ImpactAnalysis analysis;
+    private final long analysisMillis;
+    private final Set<String> candidates = new TreeSet<>();
+
+    public ChangeSelector() {
+        long start = System.nanoTime();
+        try {
+            analysis = ImpactAnalysis.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot work out what changed", e);
+        }
+        analysisMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (analysis == null) {
+            return methods;
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            String name = LongestFirstScheduler.name(method.getMethod());
+            synchronized (candidates) {
+                candidates.add(name);
+            }
+            if (analysis.selects(name)) {
+                selected.add(method);
+            }
+        }
+        LOG.info("{}: change-based selection runs {} of {} methods{}", context.getName(), selected.size(), methods.size(),
+            analysis.selectsEverything() ? " (unattributed changes: " + analysis.getUnattributed() + ")" : "");
+        return selected;
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        CoverageIndex.getInstance().save();
+        if (analysis == null) {
+            return;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        synchronized (candidates) {
+            long selected = candidates.stream().filter(analysis::selects).count();
+            report.put("candidates", candidates.size());
+            report.put("selected", selected);
+            report.put("confidence", round(analysis.confidence()));
+            report.put("coverage", round(analysis.coverage(candidates)));
+            report.put("analysisMs", analysisMillis);
+            report.put("unattributed", analysis.getUnattributed());
+            report.put("tests", analysis.describe(candidates));
+            LOG.info("Change-based selection: {} of {} tests, confidence {}, index coverage {}, decided in {} ms",
+                selected, candidates.size(), report.get("confidence"), report.get("coverage"), analysisMillis);
+        }
+        Path file = Paths.get(outputDirectory, "selection.json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
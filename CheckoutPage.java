@@ -0,0 +1,41 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * The SauceDemo checkout steps: customer information, overview and confirmation.
+ */
+public class CheckoutPage extends Page {
+    private final Element firstName = present(By.cssSelector("[data-test='firstName']"));
+    private final Element lastName = present(By.cssSelector("[data-test='lastName']"));
+    private final Element postalCode = present(By.cssSelector("[data-test='postalCode']"));
+    private final Element continueButton = present(By.cssSelector("[data-test='continue']"));
+    private final Element finishButton = clickable(By.cssSelector("[data-test='finish']"));
+    private final Element completeHeader = present(By.className("complete-header"));
+
+    public CheckoutPage(ElementCache cache) {
+        super(cache);
+    }
+
+    /**
+     * Fills in the customer information and moves on to the overview.
+     */
+    public CheckoutPage enterInformation(String first, String last, String zip) {
+        firstName.sendKeys(first);
+        lastName.sendKeys(last);
+        postalCode.sendKeys(zip);
+        continueButton.click();
+        left();
+        return this;
+    }
+
+    public CheckoutPage finish() {
+        finishButton.click();
+        left();
+        return this;
+    }
+
+    public Element completeHeader() {
+        return completeHeader;
+    }
+}
@@ -0,0 +1,137 @@
+package com.launchable.demo.metrics;
+
+import com.launchable.demo.base.TestContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects latency per WebDriver command, per test class, per TestNG group and per test,
+ * plus the slowest individual steps of the run.
+ *
+ * <p>Recording is a handful of atomic increments; only steps slower than the current
+ * top-N threshold take a lock.
+ */
+public final class CommandMetrics {
+    private static final CommandMetrics INSTANCE = new CommandMetrics(Integer.getInteger("metrics.top", 10));
+
+    private final int topN;
+    private final Map<String, LatencyHistogram> byCommand = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LatencyHistogram>> byClass = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LatencyHistogram>> byGroup = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> byTest = new ConcurrentHashMap<>();
+    private final PriorityQueue<Step> slowest = new PriorityQueue<>(Comparator.comparingLong(step -> step.nanos));
+    private volatile long slowestThreshold;
+
+    private CommandMetrics(int topN) {
+        this.topN = Math.max(1, topN);
+    }
+
+    public static CommandMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records one command (or composite step such as a wait) for the test on this thread.
+     */
+    public void record(String command, long nanos) {
+        TestContext context = TestContext.current();
+        histogram(byCommand, command).recordNanos(nanos);
+        histogram(byClass.computeIfAbsent(context.getTestClass(), k -> new ConcurrentHashMap<>()), command)
+            .recordNanos(nanos);
+        for (String group : context.getGroups()) {
+            histogram(byGroup.computeIfAbsent(group, k -> new ConcurrentHashMap<>()), command).recordNanos(nanos);
+        }
+        if (nanos > slowestThreshold) {
+            synchronized (slowest) {
+                slowest.add(new Step(context.getTestName(), command, nanos));
+                if (slowest.size() > topN) {
+                    slowest.poll();
+                    slowestThreshold = slowest.peek().nanos;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the wall-clock time of a whole test method.
+     */
+    public void recordTest(String testName, long nanos) {
+        histogram(byTest, testName).recordNanos(nanos);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commands", summarise(byCommand));
+        report.put("byClass", summariseNested(byClass));
+        report.put("byGroup", summariseNested(byGroup));
+        report.put("tests", summarise(byTest));
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (Step step : slowestSteps()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("test", step.test);
+            entry.put("command", step.command);
+            entry.put("ms", TimeUnit.NANOSECONDS.toMicros(step.nanos) / 1000.0);
+            steps.add(entry);
+        }
+        report.put("slowestSteps", steps);
+        return report;
+    }
+
+    /**
+     * Returns a human-readable top-N of the slowest steps, slowest first.
+     */
+    public String slowestSummary() {
+        StringBuilder summary = new StringBuilder("Slowest WebDriver steps:");
+        int rank = 1;
+        for (Step step : slowestSteps()) {
+            summary.append(String.format("%n  %2d. %8.1f ms  %-32s %s",
+                rank++, TimeUnit.NANOSECONDS.toMicros(step.nanos) / 1000.0, step.command, step.test));
+        }
+        return summary.toString();
+    }
+
+    private List<Step> slowestSteps() {
+        List<Step> steps;
+        synchronized (slowest) {
+            steps = new ArrayList<>(slowest);
+        }
+        steps.sort(Comparator.comparingLong((Step step) -> step.nanos).reversed());
+        return steps;
+    }
+
+    private static LatencyHistogram histogram(Map<String, LatencyHistogram> map, String key) {
+        return map.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    private static Map<String, Object> summarise(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> summary = new TreeMap<>();
+        histograms.forEach((name, histogram) -> summary.put(name, histogram.summary()));
+        return summary;
+    }
+
+    private static Map<String, Object> summariseNested(Map<String, Map<String, LatencyHistogram>> nested) {
+        Map<String, Object> summary = new TreeMap<>();
+        nested.forEach((name, histograms) -> summary.put(name, summarise(histograms)));
+        return summary;
+    }
+
+    private static final class Step {
+        private final String test;
+        private final String command;
+        private final long nanos;
+
+        private Step(String test, String command, long nanos) {
+            this.test = test;
+            this.command = command;
+            this.nanos = nanos;
+        }
+    }
+}
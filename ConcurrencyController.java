@@ -0,0 +1,304 @@
+package com.launchable.demo.base;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how many tests may hold a browser at once while the run is going, from what the
+ * host can take: system CPU load, available memory and the resident memory of the browsers
+ * this JVM has started.
+ *
+ * <p>Enabled with {@code -Dtest.threads=adaptive}, which gives TestNG
+ * {@code concurrency.max} worker threads (default: one per core); workers beyond the
+ * current limit wait in {@code setUp} before leasing a browser. Every
+ * {@code concurrency.interval.ms} the limit grows by one when tests are waiting, CPU is
+ * below {@code concurrency.cpu.low} and another browser fits in memory, and shrinks by one
+ * when CPU is above {@code concurrency.cpu.high} or available memory drops under
+ * {@code concurrency.memory.reserve.mb}. A shrink for memory also quits idle pooled
+ * browsers down to the new limit, and spare ones launched ahead, so that the memory is
+ * actually freed. Each sample is kept for the run's timeline.
+ */
+public final class ConcurrencyController {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyController.class);
+    private static final ConcurrencyController INSTANCE = new ConcurrencyController(
+        "adaptive".equalsIgnoreCase(System.getProperty("test.threads", "").trim()),
+        Integer.getInteger("concurrency.max", Runtime.getRuntime().availableProcessors()),
+        Integer.getInteger("concurrency.min", 1));
+    // Used until a browser has actually been measured, e.g. with remote browsers
+    private static final long DEFAULT_BROWSER_BYTES = 300L << 20;
+
+    private final boolean enabled;
+    private final int max;
+    private final int min;
+    private final double cpuLow = Double.parseDouble(System.getProperty("concurrency.cpu.low", "0.6"));
+    private final double cpuHigh = Double.parseDouble(System.getProperty("concurrency.cpu.high", "0.85"));
+    private final long reserveBytes = Long.getLong("concurrency.memory.reserve.mb", 512) << 20;
+    private final long startMillis = System.currentTimeMillis();
+    private final List<Sample> timeline = Collections.synchronizedList(new ArrayList<>());
+    private ScheduledExecutorService sampler;
+    private int limit;
+    private int active;
+    private int waiting;
+    private long waitNanos;
+    private long browserBytes = DEFAULT_BROWSER_BYTES;
+
+    private ConcurrencyController(boolean enabled, int max, int min) {
+        this.enabled = enabled;
+        this.max = Math.max(1, max);
+        this.min = Math.max(1, Math.min(min, this.max));
+        this.limit = Math.max(this.min, Integer.getInteger("concurrency.initial", (this.max + 1) / 2));
+    }
+
+    public static ConcurrencyController getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Upper bound on the limit, and the number of worker threads TestNG should be given.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Blocks until the current limit lets one more test hold a browser.
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        startSampling();
+        long start = System.nanoTime();
+        synchronized (this) {
+            waiting++;
+            try {
+                while (active >= limit) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a browser slot", e);
+            } finally {
+                waiting--;
+            }
+            active++;
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    public void release() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            active--;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Stops sampling and returns the timeline recorded so far.
+     */
+    public List<Sample> finish() {
+        synchronized (this) {
+            if (sampler != null) {
+                sampler.shutdownNow();
+                sampler = null;
+            }
+        }
+        synchronized (timeline) {
+            return new ArrayList<>(timeline);
+        }
+    }
+
+    public synchronized long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    public synchronized long getBrowserBytes() {
+        return browserBytes;
+    }
+
+    private synchronized void startSampling() {
+        if (sampler != null || timeline.size() > 0) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "concurrency-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Long.getLong("concurrency.interval.ms", 2_000);
+        sampler.scheduleWithFixedDelay(this::adjust, 0, interval, TimeUnit.MILLISECONDS);
+        LOG.info("Adaptive concurrency: starting at {} sessions (min {}, max {})", limit, min, max);
+    }
+
+    private void adjust() {
+        try {
+            double cpu = HostLoad.cpu();
+            long available = HostLoad.availableMemory();
+            HostLoad.Browsers browsers = HostLoad.browsers();
+            int trimTo = -1;
+            synchronized (this) {
+                if (browsers.count > 0) {
+                    browserBytes = browsers.rssBytes / browsers.count;
+                }
+                int previous = limit;
+                String reason = null;
+                if (cpu > cpuHigh || available < reserveBytes) {
+                    limit = Math.max(min, limit - 1);
+                    reason = cpu > cpuHigh ? "CPU " + percent(cpu) : "available memory " + (available >> 20) + " MB";
+                    if (available < reserveBytes) {
+                        trimTo = limit;
+                    }
+                } else if (waiting > 0 && active >= limit && cpu >= 0 && cpu < cpuLow
+                    && available - browserBytes > reserveBytes) {
+                    limit = Math.min(max, limit + 1);
+                    reason = "CPU " + percent(cpu) + ", " + (available >> 20) + " MB available, " + waiting + " waiting";
+                }
+                if (limit != previous) {
+                    LOG.info("Adaptive concurrency: {} -> {} sessions ({})", previous, limit, reason);
+                    notifyAll();
+                }
+                timeline.add(new Sample(System.currentTimeMillis() - startMillis, limit, active, waiting,
+                    cpu, available, browsers.count, browsers.rssBytes));
+            }
+            if (trimTo >= 0) {
+                // A lower limit only stops new tests; idle and spare browsers still hold the memory
+                DriverPool.getInstance().trimIdle(trimTo);
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Concurrency sample failed: {}", e.toString());
+        }
+    }
+
+    private static String percent(double value) {
+        return Math.round(value * 100) + "%";
+    }
+
+    /**
+     * One reading of the host and the limit chosen from it.
+     */
+    public static final class Sample {
+        private final long elapsedMillis;
+        private final int limit;
+        private final int active;
+        private final int waiting;
+        private final double cpu;
+        private final long availableBytes;
+        private final int browsers;
+        private final long browserRssBytes;
+
+        private Sample(long elapsedMillis, int limit, int active, int waiting, double cpu,
+                       long availableBytes, int browsers, long browserRssBytes) {
+            this.elapsedMillis = elapsedMillis;
+            this.limit = limit;
+            this.active = active;
+            this.waiting = waiting;
+            this.cpu = cpu;
+            this.availableBytes = availableBytes;
+            this.browsers = browsers;
+            this.browserRssBytes = browserRssBytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public double getCpu() {
+            return cpu;
+        }
+
+        public long getAvailableBytes() {
+            return availableBytes;
+        }
+
+        public int getBrowsers() {
+            return browsers;
+        }
+
+        public long getBrowserRssBytes() {
+            return browserRssBytes;
+        }
+    }
+
+    /**
+     * Host readings, from {@code /proc} where it exists and otherwise from what the JVM
+     * reports, or nothing for browser sizes.
+     */
+    private static final class HostLoad {
+
+        private HostLoad() {
+        }
+
+        /**
+         * System CPU load from 0 to 1, or a negative value when unknown.
+         */
+        static double cpu() {
+            java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+            }
+            double average = os.getSystemLoadAverage();
+            return average < 0 ? -1 : average / os.getAvailableProcessors();
+        }
+
+        static long availableMemory() {
+            long available = ProcessMemory.available();
+            if (available >= 0) {
+                return available;
+            }
+            java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize();
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * Browsers started from this JVM, counted by their driver processes, and the
+         * resident memory of everything below those drivers.
+         */
+        static Browsers browsers() {
+            Browsers browsers = new Browsers();
+            ProcessHandle.current().children().forEach(child -> {
+                String command = child.info().command().orElse("");
+                if (command.contains("chromedriver") || command.contains("geckodriver")) {
+                    browsers.count++;
+                    browsers.rssBytes += Math.max(0, ProcessMemory.rss(child));
+                    child.descendants().forEach(p -> browsers.rssBytes += Math.max(0, ProcessMemory.rss(p)));
+                }
+            });
+            return browsers;
+        }
+
+        private static final class Browsers {
+            private int count;
+            private long rssBytes;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.ConcurrencyController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Under {@code -Dtest.threads=adaptive}, writes the {@link ConcurrencyController}'s
+ * timeline to {@code concurrency.csv} in the TestNG output directory and logs a summary to
+ * size runners by: the concurrency the host settled on and what one browser needed.
+ */
+public class ConcurrencyReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        ConcurrencyController controller = ConcurrencyController.getInstance();
+        if (!controller.isEnabled()) {
+            return;
+        }
+        List<ConcurrencyController.Sample> timeline = controller.finish();
+        if (timeline.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(outputDirectory, "concurrency.csv");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("elapsedMs,limit,active,waiting,cpu,availableMb,browsers,browserRssMb\n");
+                for (ConcurrencyController.Sample sample : timeline) {
+                    out.write(String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%d,%d,%d%n",
+                        sample.getElapsedMillis(), sample.getLimit(), sample.getActive(), sample.getWaiting(),
+                        sample.getCpu(), sample.getAvailableBytes() >> 20, sample.getBrowsers(),
+                        sample.getBrowserRssBytes() >> 20));
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+
+        double weighted = 0;
+        int peak = 0;
+        for (int i = 0; i < timeline.size(); i++) {
+            ConcurrencyController.Sample sample = timeline.get(i);
+            long until = i + 1 < timeline.size() ? timeline.get(i + 1).getElapsedMillis() : sample.getElapsedMillis();
+            weighted += sample.getLimit() * (double) (until - sample.getElapsedMillis());
+            peak = Math.max(peak, sample.getLimit());
+        }
+        long span = timeline.get(timeline.size() - 1).getElapsedMillis() - timeline.get(0).getElapsedMillis();
+        double average = span > 0 ? weighted / span : timeline.get(0).getLimit();
+        LOG.info("Adaptive concurrency: average {} sessions, peak {} of max {}, {} ms spent waiting for a slot, "
+                + "~{} MB per browser; see {}",
+            String.format(Locale.ROOT, "%.1f", average), peak, controller.getMax(), controller.getWaitMillis(),
+            controller.getBrowserBytes() >> 20, file);
+    }
+}
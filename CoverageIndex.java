@@ -0,0 +1,113 @@
+package com.launchable.demo.selection;
+
+import com.launchable.demo.base.LocalStore;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What each test method touched when it last ran: the pages it navigated to, the locators it
+ * looked up and the helper methods those lookups went through. Kept in the
+ * {@link LocalStore} as {@code selection-index.json}; a test's entry is replaced whenever it
+ * runs again, entries of tests that did not run are kept.
+ */
+public final class CoverageIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(CoverageIndex.class);
+    private static final String STORE = "selection-index.json";
+    private static final CoverageIndex INSTANCE = new CoverageIndex();
+
+    static final String PAGES = "pages";
+    static final String LOCATORS = "locators";
+    static final String HELPERS = "helpers";
+
+    private final Map<String, Map<String, Set<String>>> stored = new TreeMap<>();
+    private final Map<String, Map<String, Set<String>>> touched = new ConcurrentHashMap<>();
+
+    private CoverageIndex() {
+        stored.putAll(load());
+    }
+
+    public static CoverageIndex getInstance() {
+        return INSTANCE;
+    }
+
+    void touch(String test, String kind, String value) {
+        touched.computeIfAbsent(test, t -> new ConcurrentHashMap<>())
+            .computeIfAbsent(kind, k -> ConcurrentHashMap.newKeySet())
+            .add(value);
+    }
+
+    /**
+     * The index as of the start of the run.
+     */
+    public Map<String, Map<String, Set<String>>> entries() {
+        return Collections.unmodifiableMap(stored);
+    }
+
+    /**
+     * Writes the index as it is now, not as it was at the start of the run, with this run's
+     * tests replaced, so shards saving at the same time keep each other's entries.
+     */
+    public synchronized void save() {
+        if (touched.isEmpty()) {
+            return;
+        }
+        try {
+            LocalStore.locked(STORE, () -> {
+                Map<String, Object> tests = new TreeMap<>(load());
+                touched.forEach((test, kinds) -> {
+                    Map<String, Set<String>> sorted = new TreeMap<>();
+                    kinds.forEach((kind, values) -> sorted.put(kind, new TreeSet<>(values)));
+                    tests.put(test, sorted);
+                });
+                Map<String, Object> root = new LinkedHashMap<>();
+                root.put("updated", Instant.now().toString());
+                root.put("tests", tests);
+                LocalStore.write(STORE, new Json().toJson(root));
+            });
+        } catch (UncheckedIOException e) {
+            LOG.warn("Could not write {}: {}", LocalStore.file(STORE), e.getMessage());
+        }
+    }
+
+    private static Map<String, Map<String, Set<String>>> load() {
+        Map<String, Map<String, Set<String>>> index = new TreeMap<>();
+        Path file = LocalStore.file(STORE);
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try {
+            Map<String, Object> root = new Json().toType(Files.readString(file), Json.MAP_TYPE);
+            Object tests = root.get("tests");
+            if (tests instanceof Map) {
+                ((Map<?, ?>) tests).forEach((test, kinds) -> index.put(String.valueOf(test), read((Map<?, ?>) kinds)));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable selection index {}: {}", file, e.getMessage());
+        }
+        return index;
+    }
+
+    private static Map<String, Set<String>> read(Map<?, ?> kinds) {
+        Map<String, Set<String>> entry = new TreeMap<>();
+        kinds.forEach((kind, values) -> {
+            Set<String> set = new TreeSet<>();
+            ((Iterable<?>) values).forEach(value -> set.add(String.valueOf(value)));
+            entry.put(String.valueOf(kind), set);
+        });
+        return entry;
+    }
+}
@@ -0,0 +1,148 @@
+package com.launchable.demo.selection;
+
+import com.launchable.demo.base.TestContext;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feeds {@link CoverageIndex} from the driver a test talks to: every page it navigates to
+ * or reads the URL of, every locator it looks up, and which of the suite's own methods
+ * (test class helpers and setup, page objects) each of those calls was made from.
+ *
+ * <p>Lookups made in the page count too: {@code DomWaits} and {@code BulkQuery} pass a
+ * locator's strategy and value as the first two script arguments, and any other script a
+ * test runs still records the helpers it was run from.
+ */
+public class CoverageListener implements WebDriverListener {
+    // Infrastructure every test goes through; a change there is not attributable to tests
+    private static final Set<String> INFRASTRUCTURE = Set.of(
+        "com.launchable.demo.base.", "com.launchable.demo.metrics.", "com.launchable.demo.network.",
+        "com.launchable.demo.selection.", "com.launchable.demo.listeners.", "com.launchable.demo.artifacts.",
+        "com.launchable.demo.pages.Page", "com.launchable.demo.pages.Element", "com.launchable.demo.pages.NavigationEpoch");
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    // By.Remotable strategies as scripts receive them, and the By factory each comes from
+    private static final Map<String, String> STRATEGIES = Map.of(
+        "css selector", "cssSelector", "id", "id", "class name", "className", "name", "name",
+        "tag name", "tagName", "xpath", "xpath", "link text", "linkText", "partial link text", "partialLinkText");
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        page(url);
+    }
+
+    @Override
+    public void beforeTo(WebDriver.Navigation navigation, String url) {
+        page(url);
+    }
+
+    @Override
+    public void beforeTo(WebDriver.Navigation navigation, URL url) {
+        page(url.toString());
+    }
+
+    @Override
+    public void afterGetCurrentUrl(String result, WebDriver driver) {
+        page(result);
+    }
+
+    @Override
+    public void beforeFindElement(WebDriver driver, By locator) {
+        locator(locator);
+    }
+
+    @Override
+    public void beforeFindElements(WebDriver driver, By locator) {
+        locator(locator);
+    }
+
+    @Override
+    public void beforeFindElement(WebElement element, By locator) {
+        locator(locator);
+    }
+
+    @Override
+    public void beforeFindElements(WebElement element, By locator) {
+        locator(locator);
+    }
+
+    @Override
+    public void beforeExecuteScript(WebDriver driver, String script, Object[] args) {
+        script(args);
+    }
+
+    @Override
+    public void beforeExecuteAsyncScript(WebDriver driver, String script, Object[] args) {
+        script(args);
+    }
+
+    /**
+     * Page id of a URL: host and path, without scheme, credentials or query, e.g.
+     * {@code www.saucedemo.com/inventory.html}.
+     */
+    static String pageId(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return null;
+            }
+            String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+            return uri.getHost() + path;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void page(String url) {
+        TestContext context = TestContext.current();
+        String page = url == null ? null : pageId(url);
+        if (context.isTest() && page != null) {
+            CoverageIndex.getInstance().touch(context.getTestName(), CoverageIndex.PAGES, page);
+            helpers(context.getTestName());
+        }
+    }
+
+    private static void locator(By locator) {
+        TestContext context = TestContext.current();
+        if (context.isTest()) {
+            CoverageIndex.getInstance().touch(context.getTestName(), CoverageIndex.LOCATORS, locator.toString());
+            helpers(context.getTestName());
+        }
+    }
+
+    private static void script(Object[] args) {
+        TestContext context = TestContext.current();
+        if (!context.isTest()) {
+            return;
+        }
+        String strategy = args != null && args.length >= 2 && args[0] instanceof String
+            ? STRATEGIES.get(args[0]) : null;
+        if (strategy != null) {
+            // Formatted as By#toString would, so it reads like the other locators in the index
+            CoverageIndex.getInstance().touch(context.getTestName(), CoverageIndex.LOCATORS,
+                "By." + strategy + ": " + args[1]);
+        }
+        helpers(context.getTestName());
+    }
+
+    private static void helpers(String test) {
+        CoverageIndex index = CoverageIndex.getInstance();
+        WALKER.forEach(frame -> {
+            String className = frame.getClassName();
+            if (className.startsWith("com.launchable.demo.") && INFRASTRUCTURE.stream().noneMatch(className::startsWith)) {
+                String owner = className.substring(className.lastIndexOf('.') + 1);
+                int nested = owner.indexOf('$');
+                String helper = (nested < 0 ? owner : owner.substring(0, nested)) + "." + frame.getMethodName();
+                if (!helper.equals(test) && !frame.getMethodName().startsWith("lambda$")) {
+                    index.touch(test, CoverageIndex.HELPERS, helper);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals JavaScript dialogs opening, using the DevTools {@code Page.javascriptDialogOpening}
+ * event, so alert waits block on an event instead of polling {@code switchTo().alert()}.
+ *
+ * <p>Only Chromium sessions expose DevTools; for other browsers {@link #forDriver} returns
+ * {@code null} and callers poll.
+ */
+final class DialogWatcher {
+    private static final Map<WebDriver, DialogWatcher> WATCHERS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final DialogWatcher UNSUPPORTED = new DialogWatcher();
+
+    private final Object lock = new Object();
+    private long openings;
+
+    private DialogWatcher() {
+    }
+
+    static DialogWatcher forDriver(WebDriver driver) {
+        // Key on the session itself: every test gets a fresh decorator around the same browser
+        DialogWatcher watcher = WATCHERS.computeIfAbsent(Drivers.unwrap(driver), DialogWatcher::attach);
+        return watcher == UNSUPPORTED ? null : watcher;
+    }
+
+    private static DialogWatcher attach(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            return UNSUPPORTED;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            DialogWatcher watcher = new DialogWatcher();
+            devTools.addListener(
+                new Event<>("Page.javascriptDialogOpening", input -> input.read(Map.class)),
+                event -> watcher.onOpening());
+            devTools.send(new Command<Void>("Page.enable", Map.of()));
+            return watcher;
+        } catch (WebDriverException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Returns a token to pass to {@link #awaitOpeningAfter}. Take it before checking for an
+     * already open dialog so an opening in between is not missed.
+     */
+    long mark() {
+        synchronized (lock) {
+            return openings;
+        }
+    }
+
+    /**
+     * Blocks until a dialog opens after {@code mark}, or the timeout elapses.
+     */
+    boolean awaitOpeningAfter(long mark, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (openings == mark) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void onOpening() {
+        synchronized (lock) {
+            openings++;
+            lock.notifyAll();
+        }
+    }
+}
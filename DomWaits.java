@@ -0,0 +1,130 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resolves element conditions inside the page with one asynchronous script call.
+ *
+ * <p>The script evaluates the condition once, and if it does not hold yet installs a
+ * {@code MutationObserver} on the document and re-evaluates on every DOM change, finishing
+ * the call as soon as the condition holds or the timeout elapses. A short in-page interval
+ * backs the observer up for changes that do not mutate the DOM, such as CSS {@code :hover}
+ * revealing an element. Nothing crosses the wire until there is an answer.
+ *
+ * <p>An async script cannot survive the page it started on being unloaded, so
+ * {@link #await} returns empty when the document navigates away mid-wait (or the locator
+ * uses a strategy {@link InPageLocators} does not know), and {@link Waits} falls back to polling for the time left.
+ */
+final class DomWaits {
+    enum Condition {
+        PRESENT, VISIBLE, CLICKABLE, TEXT_CHANGE, ABSENT
+    }
+
+    private static final long BACKSTOP_INTERVAL_MS = 50;
+    // Some headroom over the wait itself so the driver's script timeout never fires first
+    private static final Duration SCRIPT_TIMEOUT_MARGIN = Duration.ofSeconds(2);
+
+    private static final String SCRIPT = InPageLocators.FUNCTIONS + "\n" + String.join("\n",
+        "var using = arguments[0], value = arguments[1], kind = arguments[2], expected = arguments[3];",
+        "var timeoutMs = arguments[4], intervalMs = arguments[5], done = arguments[arguments.length - 1];",
+        "var css = toCss(using, value);",
+        "function find() {",
+        "  if (css !== null) { return document.querySelector(css); }",
+        "  if (using === 'xpath') {",
+        "    return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;",
+        "  }",
+        "  var links = document.getElementsByTagName('a');",
+        "  for (var i = 0; i < links.length; i++) {",
+        "    if (linkMatches(using, value, links[i])) { return links[i]; }",
+        "  }",
+        "  return null;",
+        "}",
+        "function shown(el) {",
+        "  var style = window.getComputedStyle(el), rect = el.getBoundingClientRect();",
+        "  return style.display !== 'none' && style.visibility !== 'hidden' && rect.width > 0 && rect.height > 0;",
+        "}",
+        "function check() {",
+        "  var el = find();",
+        "  switch (kind) {",
+        "    case 'ABSENT': return el ? null : true;",
+        "    case 'PRESENT': return el;",
+        "    case 'VISIBLE': return el && shown(el) ? el : null;",
+        "    case 'CLICKABLE': return el && shown(el) && !el.disabled ? el : null;",
+        "    case 'TEXT_CHANGE': return el && (el.innerText || '').trim() !== expected ? el : null;",
+        "  }",
+        "  return null;",
+        "}",
+        "var first = check();",
+        "if (first) { done(first); return; }",
+        "var observer, timer, interval, finished = false;",
+        "function finish(result) {",
+        "  if (finished) { return; }",
+        "  finished = true;",
+        "  observer.disconnect(); clearTimeout(timer); clearInterval(interval);",
+        "  done(result);",
+        "}",
+        "function recheck() { var result = check(); if (result) { finish(result); } }",
+        "observer = new MutationObserver(recheck);",
+        "observer.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});",
+        "interval = setInterval(recheck, intervalMs);",
+        "timer = setTimeout(function () { finish(null); }, timeoutMs);");
+
+    private final WebDriver driver;
+    // The session's own script timeout, put back after every wait; read on first use
+    private Duration scriptTimeout;
+
+    DomWaits(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Waits in-page for {@code condition} on {@code locator}.
+     *
+     * @return the script's result (the element, or {@code TRUE} for {@link Condition#ABSENT});
+     *     empty if the wait could not be resolved in-page and should be retried by polling
+     * @throws TimeoutException if the condition did not hold within {@code timeout}
+     */
+    Optional<Object> await(By locator, Condition condition, String expectedText, Duration timeout) {
+        if (!(locator instanceof By.Remotable) || !(driver instanceof JavascriptExecutor)) {
+            return Optional.empty();
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String using = parameters.using();
+        if (!InPageLocators.STRATEGIES.contains(using)) {
+            return Optional.empty();
+        }
+        Object result;
+        try {
+            if (scriptTimeout == null) {
+                scriptTimeout = driver.manage().timeouts().getScriptTimeout();
+            }
+            driver.manage().timeouts().scriptTimeout(timeout.plus(SCRIPT_TIMEOUT_MARGIN));
+            result = ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT,
+                using, String.valueOf(parameters.value()), condition.name(),
+                expectedText == null ? "" : expectedText.trim(),
+                timeout.toMillis(), BACKSTOP_INTERVAL_MS);
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (WebDriverException e) {
+            // Typically the document unloaded while we were observing it
+            return Optional.empty();
+        } finally {
+            // A pooled browser must not hand the next test, or the next script, this wait's timeout
+            if (scriptTimeout != null) {
+                driver.manage().timeouts().scriptTimeout(scriptTimeout);
+            }
+        }
+        if (result == null) {
+            throw new TimeoutException(String.format(
+                "Expected %s to be %s within %d ms", locator, condition.name().toLowerCase(), timeout.toMillis()));
+        }
+        return Optional.of(result);
+    }
+}
@@ -0,0 +1,40 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.interactions.Actions;
+
+/**
+ * The-internet's drag and drop example.
+ */
+public class DragAndDropPage extends Page {
+    public static final String URL = "https://the-internet.herokuapp.com/drag_and_drop";
+    private static final By COLUMN_A = By.id("column-a");
+
+    private final Element columnA = present(COLUMN_A);
+    private final Element columnB = present(By.id("column-b"));
+
+    public DragAndDropPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public DragAndDropPage open() {
+        driver().get(URL);
+        return this;
+    }
+
+    public Element columnA() {
+        return columnA;
+    }
+
+    public Element columnB() {
+        return columnB;
+    }
+
+    /**
+     * Drags column A onto column B and waits for A's text to change from {@code initialA}.
+     */
+    public void dragAOntoB(String initialA) {
+        new Actions(driver()).dragAndDrop(columnA.get(), columnB.get()).perform();
+        waits().textChanges(COLUMN_A, initialA);
+    }
+}
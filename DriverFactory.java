@@ -0,0 +1,120 @@
+package com.launchable.demo.base;
+
+import com.launchable.demo.metrics.CommandMetrics;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Creates browser sessions for the supported browsers, set up for the current
+ * {@link BrowserProfile}: locally, or on a Selenium Grid when {@link GridRouter} has
+ * endpoints configured. Sessions must be ended through {@link #quit} so the grid
+ * bookkeeping stays right and the {@link MemoryWatchdog} can clean up after them.
+ */
+public final class DriverFactory {
+    // WebDriverManager resolves (and may download) the driver binary on every setup() call;
+    // the answer cannot change within a JVM, so resolve each browser once.
+    private static final Map<String, Boolean> RESOLVED_BINARIES = new ConcurrentHashMap<>();
+    private static final GridRouter GRID = GridRouter.fromConfig();
+
+    private DriverFactory() {
+    }
+
+    public static WebDriver create(BrowserSpec spec) {
+        String browser = spec.getBrowser();
+        boolean headless = spec.isHeadless();
+        if (GRID == null) {
+            resolveDriverBinary(browser);
+        }
+        long start = System.nanoTime();
+        // Local browsers get their own profile so the watchdog can find their processes
+        Path profileDir = GRID == null ? MemoryWatchdog.getInstance().newProfileDir(browser) : null;
+        WebDriver driver;
+        switch (browser) {
+            case "chrome":
+                ChromeOptions chromeOptions = new ChromeOptions();
+                if (headless) {
+                    chromeOptions.addArguments("--headless");
+                }
+                chromeOptions.addArguments("--no-sandbox");
+                chromeOptions.addArguments("--disable-dev-shm-usage");
+                chromeOptions.addArguments("--disable-gpu");
+                if (profileDir != null) {
+                    chromeOptions.addArguments("--user-data-dir=" + profileDir);
+                }
+                // Console messages for failure artifacts
+                LoggingPreferences logging = new LoggingPreferences();
+                logging.enable(LogType.BROWSER, Level.ALL);
+                chromeOptions.setCapability(ChromeOptions.LOGGING_PREFS, logging);
+                BrowserProfile.current().apply(chromeOptions);
+                driver = GRID != null ? GRID.create(chromeOptions) : new ChromeDriver(chromeOptions);
+                break;
+
+            case "firefox":
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (headless) {
+                    firefoxOptions.addArguments("--headless");
+                }
+                if (profileDir != null) {
+                    firefoxOptions.addArguments("-profile", profileDir.toString());
+                }
+                BrowserProfile.current().apply(firefoxOptions);
+                driver = GRID != null ? GRID.create(firefoxOptions) : new FirefoxDriver(firefoxOptions);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Browser not supported: " + browser);
+        }
+        MemoryWatchdog.getInstance().register(driver, browser, profileDir);
+        driver.manage().window().maximize();
+        // Explicit waits only, see Waits
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        CommandMetrics.getInstance().record("browser.launch", System.nanoTime() - start);
+        return driver;
+    }
+
+    /**
+     * Ends a session created by {@link #create}, killing its browser if it does not go quietly.
+     */
+    public static void quit(WebDriver driver) {
+        try {
+            MemoryWatchdog.getInstance().quit(driver);
+        } finally {
+            if (GRID != null) {
+                GRID.released(driver);
+            }
+        }
+    }
+
+    static void logStats() {
+        if (GRID != null) {
+            GRID.logStats();
+        }
+    }
+
+    private static void resolveDriverBinary(String browser) {
+        RESOLVED_BINARIES.computeIfAbsent(browser, b -> {
+            switch (b) {
+                case "chrome":
+                    WebDriverManager.chromedriver().setup();
+                    return Boolean.TRUE;
+                case "firefox":
+                    WebDriverManager.firefoxdriver().setup();
+                    return Boolean.TRUE;
+                default:
+                    throw new IllegalArgumentException("Browser not supported: " + b);
+            }
+        });
+    }
+}
@@ -0,0 +1,276 @@
+package com.launchable.demo.base;
+
+import com.launchable.demo.network.NetworkCache;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps warm browser sessions around between test methods.
+ *
+ * <p>A session is leased to one test at a time. On release its state (extra windows,
+ * cookies, local and session storage) is wiped and it is parked on {@code about:blank}
+ * for the next test. Storage is cleared for the origin the browser is on and for every
+ * origin the test navigated to through the {@link #originTracker}: over CDP in Chrome,
+ * otherwise by loading each origin and clearing it from there. In Chrome the session
+ * storage of origins other than the last one survives, since it belongs to the tab and
+ * CDP can only clear it for a loaded page. A session is only quit when it fails the reset, or once it has
+ * served {@code driver.pool.maxUses} tests, or when the {@link MemoryWatchdog} finds it
+ * has grown too large. Set {@code -Ddriver.pool.enabled=false}
+ * to get the old launch-per-test behaviour back.
+ *
+ * <p>New sessions come from a {@link BrowserProvisioner}, which launches replacements
+ * in the background while earlier tests are still running.
+ */
+public final class DriverPool {
+    private static final Logger LOG = LoggerFactory.getLogger(DriverPool.class);
+    private static final DriverPool INSTANCE = new DriverPool(
+        Boolean.parseBoolean(System.getProperty("driver.pool.enabled", "true")),
+        Integer.getInteger("driver.pool.maxUses", 25),
+        new BrowserProvisioner(Integer.getInteger("driver.provision.ahead", 2)));
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+        "try { window.localStorage.clear(); } catch (e) {}"
+            + "try { window.sessionStorage.clear(); } catch (e) {}";
+    private static final String CDP_STORAGE_TYPES =
+        "local_storage,indexeddb,websql,cache_storage,service_workers,file_systems";
+
+    private final boolean enabled;
+    private final int maxUses;
+    private final BrowserProvisioner provisioner;
+    private final Map<BrowserSpec, Deque<PooledDriver>> idle = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledDriver> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger launches = new AtomicInteger();
+    private final AtomicInteger reuses = new AtomicInteger();
+    private final AtomicInteger recycles = new AtomicInteger();
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+
+    private DriverPool(boolean enabled, int maxUses, BrowserProvisioner provisioner) {
+        this.enabled = enabled;
+        this.maxUses = Math.max(1, maxUses);
+        this.provisioner = provisioner;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "driver-pool-shutdown"));
+    }
+
+    public static DriverPool getInstance() {
+        return INSTANCE;
+    }
+
+    public WebDriver lease(String browser, boolean headless) {
+        BrowserSpec spec = new BrowserSpec(browser, headless);
+        PooledDriver pooled = enabled ? idle.computeIfAbsent(spec, k -> new ConcurrentLinkedDeque<>()).pollFirst() : null;
+        if (pooled != null) {
+            reuses.incrementAndGet();
+        } else {
+            pooled = new PooledDriver(spec, provisioner.take(spec));
+            launches.incrementAndGet();
+        }
+        pooled.uses++;
+        leased.put(pooled.driver, pooled);
+        return pooled.driver;
+    }
+
+    public void release(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            quitQuietly(driver);
+            return;
+        }
+        // Sampled before the reset so the heap is that of the page the test left behind
+        if (!enabled || pooled.uses >= maxUses
+            || MemoryWatchdog.getInstance().shouldRecycle(driver, TestContext.current().getTestName())
+            || !reset(pooled)) {
+            recycles.incrementAndGet();
+            quitQuietly(driver);
+            return;
+        }
+        idle.computeIfAbsent(pooled.spec, k -> new ConcurrentLinkedDeque<>()).offerFirst(pooled);
+    }
+
+    /**
+     * A listener that notes the origins a test navigates the leased {@code driver} to, so
+     * that their storage is cleared on release too. Does nothing for a driver not leased here.
+     */
+    public WebDriverListener originTracker(WebDriver driver) {
+        PooledDriver pooled = leased.get(driver);
+        return new WebDriverListener() {
+            @Override
+            public void afterGet(WebDriver decorated, String url) {
+                visited(pooled, url);
+            }
+
+            @Override
+            public void afterTo(WebDriver.Navigation navigation, String url) {
+                visited(pooled, url);
+            }
+
+            @Override
+            public void afterTo(WebDriver.Navigation navigation, URL url) {
+                visited(pooled, url.toString());
+            }
+        };
+    }
+
+    private static void visited(PooledDriver pooled, String url) {
+        // Listeners see the URL the test asked for; in replay mode the browser went elsewhere
+        String origin = origin(NetworkCache.getInstance().rewrite(url));
+        if (pooled != null && origin != null) {
+            pooled.origins.add(origin);
+        }
+    }
+
+    /**
+     * Quits idle browsers, least recently used first, until no more than {@code keep} are
+     * leased or idle, and quits the provisioner's finished spare launches, to give their
+     * memory back to the host. Leased browsers are left alone.
+     */
+    public void trimIdle(int keep) {
+        int trimmed = 0;
+        for (Deque<PooledDriver> deque : idle.values()) {
+            PooledDriver pooled;
+            while (leased.size() + idleCount() > keep && (pooled = deque.pollLast()) != null) {
+                recycles.incrementAndGet();
+                quitQuietly(pooled.driver);
+                trimmed++;
+            }
+        }
+        int spares = provisioner.discardReady();
+        if (trimmed + spares > 0) {
+            LOG.info("Driver pool: quit {} idle and {} spare browsers to free memory", trimmed, spares);
+        }
+    }
+
+    private int idleCount() {
+        int count = 0;
+        for (Deque<PooledDriver> deque : idle.values()) {
+            count += deque.size();
+        }
+        return count;
+    }
+
+    public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
+        List<PooledDriver> drivers = new ArrayList<>();
+        for (Deque<PooledDriver> deque : idle.values()) {
+            PooledDriver pooled;
+            while ((pooled = deque.pollFirst()) != null) {
+                drivers.add(pooled);
+            }
+        }
+        drivers.addAll(leased.values());
+        leased.clear();
+        for (PooledDriver pooled : drivers) {
+            quitQuietly(pooled.driver);
+        }
+        if (launches.get() > 0) {
+            LOG.info("Driver pool: {} browser launches, {} reuses, {} recycled", launches.get(), reuses.get(), recycles.get());
+        }
+        provisioner.shutdown();
+        DriverFactory.logStats();
+    }
+
+    /**
+     * Returns the browser to a blank state. A browser that cannot be reset is
+     * considered unhealthy and is recycled by the caller.
+     */
+    private boolean reset(PooledDriver pooled) {
+        WebDriver driver = pooled.driver;
+        try {
+            try {
+                driver.switchTo().alert().dismiss();
+            } catch (NoAlertPresentException ignored) {
+                // Nothing left open by the test
+            }
+
+            Iterator<String> handles = driver.getWindowHandles().iterator();
+            String primary = handles.next();
+            while (handles.hasNext()) {
+                driver.switchTo().window(handles.next());
+                driver.close();
+            }
+            driver.switchTo().window(primary);
+
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            Set<String> others = new LinkedHashSet<>(pooled.origins);
+            others.remove(origin(driver.getCurrentUrl()));
+            pooled.origins.clear();
+            if (driver instanceof HasCdp) {
+                // deleteAllCookies only covers the current document's domain
+                ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                for (String origin : others) {
+                    ((HasCdp) driver).executeCdpCommand("Storage.clearDataForOrigin",
+                        Map.of("origin", origin, "storageTypes", CDP_STORAGE_TYPES));
+                }
+            } else {
+                for (String origin : others) {
+                    driver.get(origin + "/");
+                    driver.manage().deleteAllCookies();
+                    ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+                }
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (WebDriverException | java.util.NoSuchElementException e) {
+            LOG.warn("Recycling browser that failed its reset: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * {@code scheme://host[:port]} of an http(s) URL, or {@code null} for anything else.
+     */
+    private static String origin(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null || !("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))) {
+                return null;
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            DriverFactory.quit(driver);
+        } catch (WebDriverException e) {
+            LOG.warn("Failed to quit browser: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledDriver {
+        private final BrowserSpec spec;
+        private final WebDriver driver;
+        // Origins navigated to since the last reset
+        private final Set<String> origins = ConcurrentHashMap.newKeySet();
+        private int uses;
+
+        private PooledDriver(BrowserSpec spec, WebDriver driver) {
+            this.spec = spec;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+/**
+ * Helpers for telling decorated drivers and the browser sessions behind them apart.
+ */
+public final class Drivers {
+
+    private Drivers() {
+    }
+
+    /**
+     * Returns the driver underneath any decorators, i.e. the handle that identifies the
+     * browser session itself.
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver current = driver;
+        while (current instanceof WrapsDriver) {
+            WebDriver wrapped = ((WrapsDriver) current).getWrappedDriver();
+            if (wrapped == null || wrapped == current) {
+                break;
+            }
+            current = wrapped;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,112 @@
+package com.launchable.demo.pages;
+
+import com.launchable.demo.base.Waits;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.function.Function;
+
+/**
+ * A lazily resolved, cached handle to one element of a page object.
+ *
+ * <p>The element is looked up, waiting for it to reach its {@link State}, the first time it
+ * is used and served from the session's {@link ElementCache} after that. An action that
+ * finds the handle stale looks the element up again and is retried once.
+ */
+public final class Element {
+    private final ElementCache cache;
+    private final String page;
+    private final By locator;
+    private final State state;
+
+    Element(ElementCache cache, String page, By locator, State state) {
+        this.cache = cache;
+        this.page = page;
+        this.locator = locator;
+        this.state = state;
+    }
+
+    public WebElement get() {
+        return cache.resolve(this);
+    }
+
+    public void click() {
+        act(element -> {
+            element.click();
+            return null;
+        });
+    }
+
+    public void sendKeys(CharSequence... keys) {
+        act(element -> {
+            element.sendKeys(keys);
+            return null;
+        });
+    }
+
+    public void clear() {
+        act(element -> {
+            element.clear();
+            return null;
+        });
+    }
+
+    public String getText() {
+        return act(WebElement::getText);
+    }
+
+    public boolean isDisplayed() {
+        return act(WebElement::isDisplayed);
+    }
+
+    /**
+     * Runs {@code action} on the element, looking it up again once if the handle is stale.
+     */
+    public <T> T act(Function<WebElement, T> action) {
+        try {
+            return action.apply(get());
+        } catch (StaleElementReferenceException e) {
+            cache.stale(this);
+            return action.apply(get());
+        }
+    }
+
+    By getLocator() {
+        return locator;
+    }
+
+    String getPage() {
+        return page;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * What the element has to be before it is handed out the first time.
+     */
+    enum State {
+        PRESENT {
+            @Override
+            WebElement await(Waits waits, By locator) {
+                return waits.present(locator);
+            }
+        },
+        VISIBLE {
+            @Override
+            WebElement await(Waits waits, By locator) {
+                return waits.visible(locator);
+            }
+        },
+        CLICKABLE {
+            @Override
+            WebElement await(Waits waits, By locator) {
+                return waits.clickable(locator);
+            }
+        };
+
+        abstract WebElement await(Waits waits, By locator);
+    }
+}
@@ -0,0 +1,119 @@
+package com.launchable.demo.pages;
+
+import com.launchable.demo.base.Waits;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The element handles page objects have resolved in one browser session, kept until the
+ * {@link NavigationEpoch} moves on or a handle goes stale.
+ *
+ * <p>A lookup served from the cache is a hit and costs no WebDriver command; one that has to
+ * wait for the element is a miss. Both are counted per page object class for the whole run,
+ * along with the handles that went stale and had to be looked up again.
+ */
+public final class ElementCache {
+    private static final Map<String, Counts> COUNTS = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final Waits waits;
+    private final NavigationEpoch navigations;
+    // One test thread per session, so no locking
+    private final Map<By, Entry> entries = new HashMap<>();
+
+    public ElementCache(WebDriver driver, Waits waits, NavigationEpoch navigations) {
+        this.driver = driver;
+        this.waits = waits;
+        this.navigations = navigations;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public Waits getWaits() {
+        return waits;
+    }
+
+    /**
+     * Forgets every handle, for when the page changed without a navigation command.
+     */
+    public void invalidate() {
+        navigations.advance();
+    }
+
+    /**
+     * Hit and miss counts per page object class, plus the total.
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> pages = new TreeMap<>();
+        long hits = 0;
+        long misses = 0;
+        long stale = 0;
+        for (Map.Entry<String, Counts> page : COUNTS.entrySet()) {
+            Counts counts = page.getValue();
+            pages.put(page.getKey(), counts.toMap());
+            hits += counts.hits.get();
+            misses += counts.misses.get();
+            stale += counts.stale.get();
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("hits", hits);
+        snapshot.put("misses", misses);
+        snapshot.put("stale", stale);
+        snapshot.put("hitRate", hits + misses == 0 ? 0.0 : Math.round(1000.0 * hits / (hits + misses)) / 1000.0);
+        snapshot.put("pages", pages);
+        return snapshot;
+    }
+
+    WebElement resolve(Element element) {
+        Counts counts = COUNTS.computeIfAbsent(element.getPage(), k -> new Counts());
+        Entry entry = entries.get(element.getLocator());
+        if (entry != null && entry.epoch == navigations.current()) {
+            counts.hits.incrementAndGet();
+            return entry.element;
+        }
+        counts.misses.incrementAndGet();
+        int epoch = navigations.current();
+        WebElement found = element.getState().await(waits, element.getLocator());
+        entries.put(element.getLocator(), new Entry(found, epoch));
+        return found;
+    }
+
+    void stale(Element element) {
+        COUNTS.computeIfAbsent(element.getPage(), k -> new Counts()).stale.incrementAndGet();
+        entries.remove(element.getLocator());
+    }
+
+    private static final class Entry {
+        private final WebElement element;
+        private final int epoch;
+
+        private Entry(WebElement element, int epoch) {
+            this.element = element;
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class Counts {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong stale = new AtomicLong();
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("hits", hits.get());
+            map.put("misses", misses.get());
+            map.put("stale", stale.get());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.launchable.demo.listeners;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.launchable.demo.artifacts.ArtifactCapture;
+import com.launchable.demo.artifacts.ArtifactWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds {@code extent-report.html} in the TestNG output directory once the suite is done,
+ * with every test's outcome and the artifacts it left behind, after giving the
+ * {@link ArtifactWriter} up to {@code artifacts.drain.ms} (default 10000) to finish writing.
+ */
+public class ExtentReportBuilder implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ExtentReportBuilder.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        ArtifactWriter writer = ArtifactWriter.getInstance();
+        if (!writer.drain(Long.getLong("artifacts.drain.ms", 10_000))) {
+            LOG.warn("Artifacts still being written; the report may link to missing files");
+        }
+        logOverhead(writer);
+
+        Path dir = Paths.get(outputDirectory).toAbsolutePath();
+        Path file = dir.resolve("extent-report.html");
+        try {
+            ExtentReports extent = new ExtentReports();
+            extent.attachReporter(new ExtentSparkReporter(file.toString()));
+            for (ISuite suite : suites) {
+                for (ISuiteResult suiteResult : suite.getResults().values()) {
+                    ITestContext context = suiteResult.getTestContext();
+                    List<ITestResult> results = new ArrayList<>();
+                    results.addAll(context.getPassedTests().getAllResults());
+                    results.addAll(context.getFailedTests().getAllResults());
+                    results.addAll(context.getSkippedTests().getAllResults());
+                    results.sort(Comparator.comparingLong(ITestResult::getStartMillis));
+                    for (ITestResult result : results) {
+                        add(extent, dir, context.getName(), result);
+                    }
+                }
+            }
+            extent.flush();
+            LOG.info("HTML report: {}", file);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not build {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void add(ExtentReports extent, Path dir, String block, ITestResult result) {
+        ExtentTest test = extent.createTest(LongestFirstScheduler.name(result.getMethod()), block);
+        test.getModel().setStartTime(new Date(result.getStartMillis()));
+        test.getModel().setEndTime(new Date(result.getEndMillis()));
+        test.assignCategory(result.getMethod().getGroups());
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                test.pass("Passed");
+                break;
+            case ITestResult.FAILURE:
+                test.fail(result.getThrowable());
+                break;
+            default:
+                if (result.getThrowable() != null) {
+                    test.skip(result.getThrowable());
+                } else {
+                    test.skip("Skipped");
+                }
+        }
+
+        Object artifacts = result.getAttribute(ArtifactCapture.RESULT_ATTRIBUTE);
+        if (!(artifacts instanceof List)) {
+            return;
+        }
+        for (Object item : (List<?>) artifacts) {
+            ArtifactWriter.Artifact artifact = (ArtifactWriter.Artifact) item;
+            if (!Files.exists(artifact.getPath())) {
+                continue;
+            }
+            String link = dir.relativize(artifact.getPath()).toString().replace('\\', '/');
+            if (artifact.getKind().startsWith("screenshot")) {
+                test.info(artifact.getKind(), MediaEntityBuilder.createScreenCaptureFromPath(link).build());
+            } else {
+                test.info("<a href='" + link + "'>" + artifact.getKind() + "</a>");
+            }
+        }
+    }
+
+    private static void logOverhead(ArtifactWriter writer) {
+        int handed = writer.getWritten() + writer.getDropped();
+        if (handed == 0) {
+            return;
+        }
+        LOG.info("Artifacts: {} written ({} KB), {} dropped; {} ms per artifact on test threads, {} ms per artifact in the writer",
+            writer.getWritten(), writer.getBytes() >> 10, writer.getDropped(),
+            String.format("%.3f", writer.getHandoffNanos() / 1e6 / handed),
+            String.format("%.1f", writer.getWriteNanos() / 1e6 / Math.max(1, writer.getWritten())));
+    }
+}
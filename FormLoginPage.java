@@ -0,0 +1,51 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * The-internet's form authentication example and the secure area behind it.
+ */
+public class FormLoginPage extends Page {
+    public static final String URL = "https://the-internet.herokuapp.com/login";
+
+    private final Element username = present(By.id("username"));
+    private final Element password = present(By.id("password"));
+    private final Element submit = present(By.cssSelector("button[type='submit']"));
+    private final Element success = present(By.cssSelector(".flash.success"));
+    private final Element error = present(By.cssSelector(".flash.error"));
+    private final Element logout = present(By.cssSelector("a[href='/logout']"));
+
+    public FormLoginPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public FormLoginPage open() {
+        driver().get(URL);
+        return this;
+    }
+
+    /**
+     * Submits the form, which loads either the secure area or the form with an error.
+     */
+    public FormLoginPage loginAs(String user, String pass) {
+        username.sendKeys(user);
+        password.sendKeys(pass);
+        submit.click();
+        left();
+        return this;
+    }
+
+    public FormLoginPage logout() {
+        logout.click();
+        left();
+        return this;
+    }
+
+    public Element success() {
+        return success;
+    }
+
+    public Element error() {
+        return error;
+    }
+}
@@ -0,0 +1,212 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads new browser sessions over one or more Selenium Grid or standalone endpoints,
+ * from {@code -Dgrid.urls} (comma separated) or else the {@code SELENIUM_GRID_URL}
+ * environment variable; {@code -Dgrid.urls=} with no value forces local browsers.
+ *
+ * <p>Each session goes to the endpoint with the fewest sessions in flight relative to its
+ * slot count, read once from its {@code /status}. All endpoints are asked at once when the
+ * router is created, and a session request waits for the answers before it picks one, so a
+ * slow endpoint delays the first requests by its timeout at most, without holding up the
+ * choice of every other request. A failed session request puts the
+ * endpoint on a short cooldown and is retried, on whichever endpoint is then the least
+ * loaded, after an exponentially growing, jittered backoff.
+ */
+final class GridRouter {
+    private static final Logger LOG = LoggerFactory.getLogger(GridRouter.class);
+
+    private final List<Node> nodes;
+    private final int attempts;
+    private final long backoffMillis;
+    private final Map<WebDriver, Node> sessions = new ConcurrentHashMap<>();
+
+    private GridRouter(List<Node> nodes, int attempts, long backoffMillis) {
+        this.nodes = nodes;
+        this.attempts = Math.max(1, attempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+        nodes.forEach(Node::querySlotsAsync);
+    }
+
+    /**
+     * The router for the configured endpoints, or {@code null} to run browsers locally.
+     */
+    static GridRouter fromConfig() {
+        String urls = System.getProperty("grid.urls");
+        if (urls == null) {
+            urls = System.getenv("SELENIUM_GRID_URL");
+        }
+        if (urls == null || urls.isBlank()) {
+            return null;
+        }
+        List<Node> nodes = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                try {
+                    nodes.add(new Node(new URL(url.trim())));
+                } catch (MalformedURLException e) {
+                    throw new IllegalArgumentException("Bad grid URL: " + url, e);
+                }
+            }
+        }
+        LOG.info("Routing browser sessions to {}", nodes);
+        return new GridRouter(Collections.unmodifiableList(nodes),
+            Integer.getInteger("grid.attempts", 4), Long.getLong("grid.backoff.ms", 1_000));
+    }
+
+    WebDriver create(Capabilities capabilities) {
+        WebDriverException last = null;
+        // Outside reserve()'s lock, so one unreachable endpoint does not serialise every request
+        nodes.forEach(Node::slots);
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            Node node = reserve();
+            try {
+                WebDriver driver = new Augmenter().augment(new RemoteWebDriver(node.url, capabilities));
+                node.created.incrementAndGet();
+                sessions.put(driver, node);
+                return driver;
+            } catch (WebDriverException e) {
+                last = e;
+                node.inFlight.decrementAndGet();
+                node.failures.incrementAndGet();
+                long delay = backoffMillis << (attempt - 1);
+                node.coolDownUntil = System.currentTimeMillis() + delay;
+                LOG.warn("Session request {} of {} on {} failed: {}", attempt, attempts, node, firstLine(e));
+                if (attempt < attempts) {
+                    sleep(delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+                }
+            }
+        }
+        throw last;
+    }
+
+    /**
+     * Frees the slot of a session created here; other drivers are ignored.
+     */
+    void released(WebDriver driver) {
+        Node node = sessions.remove(driver);
+        if (node != null) {
+            node.inFlight.decrementAndGet();
+        }
+    }
+
+    void logStats() {
+        for (Node node : nodes) {
+            LOG.info("Grid endpoint {}: {} sessions created, {} failed requests, {} slots",
+                node, node.created.get(), node.failures.get(), node.slots());
+        }
+    }
+
+    private synchronized Node reserve() {
+        long now = System.currentTimeMillis();
+        Node best = null;
+        for (Node node : nodes) {
+            if (best == null || rank(node, now) < rank(best, now)) {
+                best = node;
+            }
+        }
+        best.inFlight.incrementAndGet();
+        return best;
+    }
+
+    /**
+     * Lower is better: endpoints cooling down come last, then load relative to capacity.
+     */
+    private static double rank(Node node, long now) {
+        double load = (double) node.inFlight.get() / node.slots();
+        return node.coolDownUntil > now ? 1_000_000 + load : load;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while backing off from the grid", e);
+        }
+    }
+
+    private static String firstLine(Throwable e) {
+        String message = String.valueOf(e.getMessage());
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static final class Node {
+        private final URL url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long coolDownUntil;
+        private volatile CompletableFuture<Integer> slots;
+
+        private Node(URL url) {
+            this.url = url;
+        }
+
+        private void querySlotsAsync() {
+            slots = CompletableFuture.supplyAsync(() -> Math.max(1, querySlots()));
+        }
+
+        /**
+         * Session slots the endpoint advertises; 1 when it cannot be asked. Blocks until the
+         * endpoint has answered or timed out.
+         */
+        private int slots() {
+            return slots.join();
+        }
+
+        private int querySlots() {
+            try {
+                String base = url.toString().replaceAll("/+$", "");
+                HttpURLConnection connection = (HttpURLConnection) new URL(base + "/status").openConnection();
+                connection.setConnectTimeout(2_000);
+                connection.setReadTimeout(2_000);
+                try (InputStream in = connection.getInputStream()) {
+                    Map<String, Object> status = new Json().toType(new String(in.readAllBytes(), StandardCharsets.UTF_8), Json.MAP_TYPE);
+                    Object nodes = ((Map<?, ?>) status.get("value")).get("nodes");
+                    int total = 0;
+                    if (nodes instanceof List) {
+                        for (Object node : (List<?>) nodes) {
+                            Object slots = ((Map<?, ?>) node).get("slots");
+                            total += slots instanceof List ? ((List<?>) slots).size() : 0;
+                        }
+                    }
+                    return total;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Could not read slots from {}: {}", url, e.getMessage());
+                return 1;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return url.toString();
+        }
+    }
+}
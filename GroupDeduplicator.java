@@ -0,0 +1,252 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.SmokeGate;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * With {@code -Dtest.dedupe=true}, runs every selected method once even when several
+ * {@code <test>} blocks select it through different groups.
+ *
+ * <p>Each block's group selection is resolved to concrete methods up front. Blocks with the
+ * same parameters are then replaced by a single block that includes exactly the union of
+ * those methods. After the run, {@code group-attribution.json} credits each result to every
+ * original block and group that selected it and counts the executions avoided.
+ *
+ * <p>While the {@link SmokeGate} is enabled, blocks that are gate stages are merged apart
+ * from the others, so the gate still has a stage to wait for: a method selected by both
+ * runs once, in the merged gate stage, and the merged later block leaves it out.
+ * {@link StagedExecution} learns which merged blocks are gate stages from
+ * {@link #isGateStage}.
+ */
+public class GroupDeduplicator implements IAlterSuiteListener, IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(GroupDeduplicator.class);
+    private static final boolean ENABLED = Boolean.getBoolean("test.dedupe");
+
+    // Which original blocks selected each method (Class.method); filled in alter()
+    private static final Map<String, Set<String>> SELECTED_BY = new TreeMap<>();
+    private static final Map<String, Set<String>> GROUPS_OF = new TreeMap<>();
+    private static final Set<String> GATE_STAGES = new TreeSet<>();
+    // Weakest first: which result a method that has several is reported with
+    private static final List<String> OUTCOME_RANK = List.of("skipped", "passed", "failed");
+    private static int selections;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!ENABLED) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            dedupe(suite);
+        }
+    }
+
+    /**
+     * Whether {@code block} is a merged block standing in for gate-stage blocks.
+     */
+    public static boolean isGateStage(String block) {
+        synchronized (SELECTED_BY) {
+            return GATE_STAGES.contains(block);
+        }
+    }
+
+    private static void dedupe(XmlSuite suite) {
+        SmokeGate gate = SmokeGate.getInstance();
+        Map<Map<String, String>, List<XmlTest>> byParameters = new LinkedHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            byParameters.computeIfAbsent(test.getLocalParameters(), k -> new ArrayList<>()).add(test);
+        }
+        List<XmlTest> merged = new ArrayList<>();
+        for (List<XmlTest> tests : byParameters.values()) {
+            List<XmlTest> stages = new ArrayList<>();
+            List<XmlTest> later = new ArrayList<>();
+            for (XmlTest test : tests) {
+                boolean gating = gate.isEnabled() && !Collections.disjoint(test.getIncludedGroups(), gate.getGroups());
+                (gating ? stages : later).add(test);
+            }
+            Set<String> staged = new TreeSet<>();
+            if (!stages.isEmpty()) {
+                XmlTest stage = merge(suite, stages, Set.of(), staged);
+                synchronized (SELECTED_BY) {
+                    GATE_STAGES.add(stage.getName());
+                }
+                merged.add(stage);
+            }
+            if (!later.isEmpty()) {
+                XmlTest rest = merge(suite, later, staged, new TreeSet<>());
+                // Nothing left once the gate stage has taken its methods
+                if (!rest.getXmlClasses().isEmpty()) {
+                    merged.add(rest);
+                }
+            }
+        }
+        suite.getTests().clear();
+        suite.getTests().addAll(merged);
+        synchronized (SELECTED_BY) {
+            LOG.info("Running {} distinct methods instead of {} ({} duplicate executions avoided)",
+                SELECTED_BY.size(), selections, selections - SELECTED_BY.size());
+        }
+    }
+
+    /**
+     * @param skip     methods ({@code Class.method}) already run by another merged block,
+     *                 credited to {@code tests} but left out
+     * @param included filled with the methods the merged block runs
+     */
+    private static XmlTest merge(XmlSuite suite, List<XmlTest> tests, Set<String> skip, Set<String> included) {
+        Map<String, Set<String>> methodsByClass = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        for (XmlTest test : tests) {
+            names.add(test.getName());
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> testClass = xmlClass.getSupportClass();
+                for (Method method : testClass.getMethods()) {
+                    Set<String> groups = groups(testClass, method);
+                    if (groups == null || !selected(test, groups)) {
+                        continue;
+                    }
+                    String name = testClass.getSimpleName() + "." + method.getName();
+                    synchronized (SELECTED_BY) {
+                        SELECTED_BY.computeIfAbsent(name, k -> new TreeSet<>()).add(test.getName());
+                        GROUPS_OF.put(name, groups);
+                        selections++;
+                    }
+                    if (skip.contains(name)) {
+                        continue;
+                    }
+                    included.add(name);
+                    methodsByClass.computeIfAbsent(xmlClass.getName(), k -> new LinkedHashSet<>()).add(method.getName());
+                }
+            }
+        }
+
+        // Not added to the suite by the constructor: the caller swaps the whole list
+        XmlTest merged = new XmlTest();
+        merged.setSuite(suite);
+        merged.setName("Deduplicated " + names);
+        merged.setParameters(new LinkedHashMap<>(tests.get(0).getLocalParameters()));
+        List<XmlClass> classes = new ArrayList<>();
+        methodsByClass.forEach((className, methods) -> {
+            XmlClass xmlClass = new XmlClass(className, false);
+            List<XmlInclude> includes = new ArrayList<>();
+            methods.forEach(method -> includes.add(new XmlInclude(method)));
+            xmlClass.setIncludedMethods(includes);
+            classes.add(xmlClass);
+        });
+        merged.setXmlClasses(classes);
+        return merged;
+    }
+
+    /**
+     * The groups of a test method, including its class's, or {@code null} for anything that
+     * is not an enabled test method.
+     */
+    private static Set<String> groups(Class<?> testClass, Method method) {
+        Test test = method.getAnnotation(Test.class);
+        if (test == null || !test.enabled()) {
+            return null;
+        }
+        Set<String> groups = new TreeSet<>(Arrays.asList(test.groups()));
+        Test classTest = testClass.getAnnotation(Test.class);
+        if (classTest != null) {
+            groups.addAll(Arrays.asList(classTest.groups()));
+        }
+        return groups;
+    }
+
+    private static boolean selected(XmlTest test, Collection<String> groups) {
+        List<String> included = test.getIncludedGroups();
+        List<String> excluded = test.getExcludedGroups();
+        boolean in = included.isEmpty() || groups.stream().anyMatch(included::contains);
+        return in && groups.stream().noneMatch(excluded::contains);
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        if (!ENABLED) {
+            return;
+        }
+        Map<String, String> outcomes = new TreeMap<>();
+        suites.forEach(suite -> suite.getResults().values().forEach(result -> {
+            collect(outcomes, result.getTestContext().getPassedTests().getAllResults(), "passed");
+            collect(outcomes, result.getTestContext().getSkippedTests().getAllResults(), "skipped");
+            collect(outcomes, result.getTestContext().getFailedTests().getAllResults(), "failed");
+        }));
+
+        Map<String, Map<String, Object>> byGroup = new TreeMap<>();
+        Map<String, Map<String, Object>> byBlock = new TreeMap<>();
+        synchronized (SELECTED_BY) {
+            SELECTED_BY.forEach((test, blocks) -> {
+                String outcome = outcomes.getOrDefault(test, "not run");
+                GROUPS_OF.get(test).forEach(group -> credit(byGroup, group, test, outcome));
+                blocks.forEach(block -> credit(byBlock, block, test, outcome));
+            });
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("selections", selections);
+            report.put("executions", SELECTED_BY.size());
+            report.put("duplicatesAvoided", selections - SELECTED_BY.size());
+            report.put("groups", byGroup);
+            report.put("blocks", byBlock);
+            write(Paths.get(outputDirectory, "group-attribution.json"), report);
+        }
+    }
+
+    private static void collect(Map<String, String> outcomes, Collection<ITestResult> results, String outcome) {
+        for (ITestResult result : results) {
+            // A method that failed anywhere is failed; a retry that passed is not a skip
+            outcomes.merge(result.getMethod().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName(),
+                outcome, (previous, next) -> OUTCOME_RANK.indexOf(next) > OUTCOME_RANK.indexOf(previous) ? next : previous);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void credit(Map<String, Map<String, Object>> report, String key, String test, String outcome) {
+        Map<String, Object> entry = report.computeIfAbsent(key, k -> {
+            Map<String, Object> created = new LinkedHashMap<>();
+            created.put("passed", 0);
+            created.put("failed", 0);
+            created.put("skipped", 0);
+            created.put("tests", new TreeMap<String, String>());
+            return created;
+        });
+        entry.computeIfPresent(outcome, (k, count) -> (Integer) count + 1);
+        ((Map<String, String>) entry.get("tests")).put(test, outcome);
+    }
+
+    private static void write(Path report, Object content) {
+        try {
+            Files.createDirectories(report.getParent());
+            Files.write(report, new Json().toJson(content).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", report, e.getMessage());
+        }
+    }
+}
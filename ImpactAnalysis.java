@@ -0,0 +1,332 @@
+package com.launchable.demo.selection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which tests a change can affect, from the {@link CoverageIndex} alone. The change
+ * is given with any of:
+ *
+ * <ul>
+ *   <li>{@code -Dselect.diff=<git ref>}: files and line ranges changed since that ref</li>
+ *   <li>{@code -Dselect.changed=<file>,...}: changed files, each taken as changed throughout</li>
+ *   <li>{@code -Dselect.pages=<page id>,...}: changed pages, e.g. {@code saucedemo.com/cart.html}</li>
+ *   <li>{@code -Dselect.locators=<text>,...}: changed locators, e.g. {@code shopping_cart_badge}</li>
+ * </ul>
+ *
+ * <p>A change inside a method of a test class or page object selects the tests that ran
+ * that method; elsewhere in such a class it selects every test of, or through, the class.
+ * Documentation changes select nothing. A change that cannot be attributed (framework
+ * code, build files), or that should touch tests but matches none in the index, selects
+ * everything and lowers the reported confidence: an index that missed a lookup must not
+ * quietly drop the tests that depend on it. Tests missing from the index always run, so a
+ * change to a {@code @Test} method the index does not know yet (one just added or renamed)
+ * is attributed to that test alone.
+ */
+public final class ImpactAnalysis {
+    private static final Pattern DIFF_FILE = Pattern.compile("^\\+\\+\\+ (?:b/)?(.+)$");
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\S+ \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Set<String> NO_IMPACT = Set.of(".md", ".txt", ".png", ".jpg", ".gif", ".svg", ".gitignore");
+    private static final String ARCHIVE_DIR = "network-archive/";
+    private static final Pattern TEST_ANNOTATION = Pattern.compile("^\\s*@(?:org\\.testng\\.annotations\\.)?Test\\b");
+
+    private final Map<String, Map<String, Set<String>>> index;
+    private final Map<String, Set<String>> reasons = new TreeMap<>();
+    private final List<String> unattributed = new ArrayList<>();
+    private int changes;
+    private int attributed;
+
+    private ImpactAnalysis(Map<String, Map<String, Set<String>>> index) {
+        this.index = index;
+    }
+
+    /**
+     * Analyses the change described by the {@code select.*} properties, or returns
+     * {@code null} when none is set.
+     */
+    public static ImpactAnalysis fromSystemProperties() throws IOException {
+        String diff = System.getProperty("select.diff", "").trim();
+        List<String> files = list("select.changed");
+        List<String> pages = list("select.pages");
+        List<String> locators = list("select.locators");
+        if (diff.isEmpty() && files.isEmpty() && pages.isEmpty() && locators.isEmpty()) {
+            return null;
+        }
+        ImpactAnalysis analysis = new ImpactAnalysis(CoverageIndex.getInstance().entries());
+        Path root = Paths.get("").toAbsolutePath();
+        if (!diff.isEmpty()) {
+            root = Paths.get(git("rev-parse", "--show-toplevel").trim());
+            analysis.diff(root, git("diff", "-U0", "--no-color", diff, "--"));
+        }
+        for (String file : files) {
+            analysis.file(root, file, null);
+        }
+        for (String page : pages) {
+            analysis.named(CoverageIndex.PAGES, page, "page " + page);
+        }
+        for (String locator : locators) {
+            analysis.named(CoverageIndex.LOCATORS, locator, "locator " + locator);
+        }
+        return analysis;
+    }
+
+    public boolean selectsEverything() {
+        return !unattributed.isEmpty();
+    }
+
+    /**
+     * Whether {@code test} ({@code Class.method}) has to run.
+     */
+    public boolean selects(String test) {
+        return selectsEverything() || reasons.containsKey(test) || !index.containsKey(test);
+    }
+
+    /**
+     * Why {@code test} was selected, empty when it was not.
+     */
+    public Set<String> reasons(String test) {
+        if (reasons.containsKey(test)) {
+            return reasons.get(test);
+        }
+        if (!index.containsKey(test)) {
+            return Set.of("not in the selection index yet");
+        }
+        return selectsEverything() ? Set.of("unattributed change") : Set.of();
+    }
+
+    public List<String> getUnattributed() {
+        return unattributed;
+    }
+
+    /**
+     * Share of the changes that could be pinned to particular tests.
+     */
+    public double confidence() {
+        return changes == 0 ? 1.0 : (double) attributed / changes;
+    }
+
+    /**
+     * Share of {@code candidates} the index knows about.
+     */
+    public double coverage(Collection<String> candidates) {
+        return candidates.isEmpty() ? 1.0 : candidates.stream().filter(index::containsKey).count() / (double) candidates.size();
+    }
+
+    /**
+     * Per-test summary for reports.
+     */
+    public Map<String, Object> describe(Collection<String> candidates) {
+        Map<String, Object> tests = new TreeMap<>();
+        for (String test : candidates) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("selected", selects(test));
+            entry.put("reasons", reasons(test));
+            tests.put(test, entry);
+        }
+        return tests;
+    }
+
+    private void diff(Path root, String diff) throws IOException {
+        String file = null;
+        List<int[]> ranges = new ArrayList<>();
+        for (String line : diff.split("\n")) {
+            Matcher newFile = DIFF_FILE.matcher(line);
+            if (line.startsWith("diff --git")) {
+                if (file != null) {
+                    file(root, file, ranges);
+                }
+                file = null;
+                ranges = new ArrayList<>();
+            } else if (line.startsWith("--- a/")) {
+                // Deleted files only show up on the old side
+                file = line.substring("--- a/".length());
+            } else if (newFile.find()) {
+                if (!newFile.group(1).equals("/dev/null")) {
+                    file = newFile.group(1);
+                }
+            } else {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int length = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    ranges.add(new int[] {start, start + Math.max(length, 1) - 1});
+                }
+            }
+        }
+        if (file != null) {
+            file(root, file, ranges);
+        }
+    }
+
+    /**
+     * @param ranges changed line ranges in the new file, or {@code null} for the whole file
+     */
+    private void file(Path root, String file, List<int[]> ranges) throws IOException {
+        changes++;
+        String name = Paths.get(file).getFileName().toString();
+        if (NO_IMPACT.stream().anyMatch(name::endsWith)) {
+            attributed++;
+            return;
+        }
+        if (file.startsWith(ARCHIVE_DIR)) {
+            // network-archive/<host>/...: what the recorded site served
+            String host = file.substring(ARCHIVE_DIR.length()).split("/")[0].split("_")[0];
+            attribute(file, matching(CoverageIndex.PAGES, host + "/", "recording of " + host));
+            return;
+        }
+        if (!name.endsWith(".java")) {
+            unattributed.add(file);
+            return;
+        }
+        String owner = name.substring(0, name.length() - ".java".length());
+        if (!isSuiteClass(owner)) {
+            unattributed.add(file);
+            return;
+        }
+        Path source = root.resolve(file);
+        if (ranges == null || !Files.isRegularFile(source)) {
+            wholeClass(owner, file);
+            attributed++;
+            return;
+        }
+        List<String> lines = Files.readAllLines(source, StandardCharsets.UTF_8);
+        Map<String, int[]> methods = JavaMembers.methods(lines);
+        boolean matched = true;
+        for (int[] range : ranges) {
+            List<String> touched = new ArrayList<>();
+            methods.forEach((method, span) -> {
+                if (range[0] <= span[1] && range[1] >= span[0]) {
+                    touched.add(method);
+                }
+            });
+            if (touched.isEmpty()) {
+                // Fields, constants, imports: anything in the class may depend on them
+                wholeClass(owner, file + ":" + range[0]);
+            }
+            for (String method : touched) {
+                String member = owner + "." + method;
+                boolean[] selected = {false};
+                index.forEach((test, kinds) -> {
+                    if (test.equals(member) || kinds.getOrDefault(CoverageIndex.HELPERS, Set.of()).contains(member)) {
+                        select(test, "changed " + member);
+                        selected[0] = true;
+                    }
+                });
+                if (!selected[0] && isTest(lines, methods.get(method))) {
+                    // A new or renamed test: not in the index yet, so selects() runs it anyway
+                    continue;
+                }
+                if (!selected[0]) {
+                    // No recorded test went through it: unused, or reached in a way the index missed
+                    unattributed.add(file + " (" + member + " matches no test in the index)");
+                    matched = false;
+                }
+            }
+        }
+        if (matched) {
+            attributed++;
+        }
+    }
+
+    /**
+     * Whether the method spanning {@code span} is annotated {@code @Test}; the span starts
+     * at its annotations.
+     */
+    private static boolean isTest(List<String> lines, int[] span) {
+        for (int n = span[0]; n <= span[1] && n <= lines.size(); n++) {
+            if (TEST_ANNOTATION.matcher(lines.get(n - 1)).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSuiteClass(String owner) {
+        String prefix = owner + ".";
+        return index.entrySet().stream().anyMatch(e -> e.getKey().startsWith(prefix)
+            || e.getValue().getOrDefault(CoverageIndex.HELPERS, Set.of()).stream().anyMatch(h -> h.startsWith(prefix)));
+    }
+
+    private void wholeClass(String owner, String where) {
+        String prefix = owner + ".";
+        index.forEach((test, kinds) -> {
+            if (test.startsWith(prefix)
+                || kinds.getOrDefault(CoverageIndex.HELPERS, Set.of()).stream().anyMatch(h -> h.startsWith(prefix))) {
+                select(test, "changed " + where);
+            }
+        });
+    }
+
+    /**
+     * A page or locator named on the command line; one the index has never seen is
+     * unattributed, like a file change.
+     */
+    private void named(String kind, String text, String reason) {
+        changes++;
+        attribute(reason, matching(kind, text, reason));
+    }
+
+    private void attribute(String change, boolean matched) {
+        if (matched) {
+            attributed++;
+        } else {
+            unattributed.add(change + " (matches no test in the index)");
+        }
+    }
+
+    private boolean matching(String kind, String text, String reason) {
+        boolean[] matched = {false};
+        index.forEach((test, kinds) -> {
+            if (kinds.getOrDefault(kind, Set.of()).stream().anyMatch(value -> value.contains(text))) {
+                select(test, reason);
+                matched[0] = true;
+            }
+        });
+        return matched[0];
+    }
+
+    private void select(String test, String reason) {
+        reasons.computeIfAbsent(test, t -> new TreeSet<>()).add(reason);
+    }
+
+    private static List<String> list(String property) {
+        List<String> values = new ArrayList<>();
+        for (String value : System.getProperty(property, "").split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    private static String git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (InputStream output = process.getInputStream()) {
+            String text = new String(output.readAllBytes(), StandardCharsets.UTF_8);
+            if (process.waitFor() != 0) {
+                throw new IOException(String.join(" ", command) + " failed: " + text.trim());
+            }
+            return text;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted running git", e);
+        }
+    }
+}
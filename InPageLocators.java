@@ -0,0 +1,39 @@
+package com.launchable.demo.base;
+
+import java.util.Set;
+
+/**
+ * The locator strategies the in-page scripts of {@link BulkQuery} and {@link DomWaits} can
+ * resolve, as {@link org.openqa.selenium.By.Remotable} hands them over.
+ *
+ * <p>{@code id}, {@code class name}, {@code name} and {@code tag name} are turned into CSS
+ * selectors in the page, where {@code CSS.escape} is at hand; the scripts still receive the
+ * locator's own strategy and value, so what they record reads like the locator the test used.
+ */
+final class InPageLocators {
+    static final Set<String> STRATEGIES = Set.of(
+        "css selector", "id", "class name", "name", "tag name", "xpath", "link text", "partial link text");
+
+    /**
+     * Defines {@code toCss(using, value)}, the CSS selector for a strategy that has one and
+     * {@code null} for the rest, and {@code linkMatches(using, value, a)}.
+     */
+    static final String FUNCTIONS = String.join("\n",
+        "function toCss(using, value) {",
+        "  switch (using) {",
+        "    case 'css selector': return value;",
+        "    case 'id': return '#' + CSS.escape(value);",
+        "    case 'class name': return '.' + CSS.escape(value);",
+        "    case 'name': return '*[name=\"' + CSS.escape(value) + '\"]';",
+        "    case 'tag name': return CSS.escape(value);",
+        "  }",
+        "  return null;",
+        "}",
+        "function linkMatches(using, value, a) {",
+        "  var text = (a.innerText || '').trim();",
+        "  return using === 'link text' ? text === value : text.indexOf(value) >= 0;",
+        "}");
+
+    private InPageLocators() {
+    }
+}
@@ -0,0 +1,85 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Select;
+
+import java.util.List;
+
+/**
+ * The SauceDemo product list, with the header's cart and menu.
+ */
+public class InventoryPage extends Page {
+    public static final String URL = SauceLoginPage.URL + "inventory.html";
+    public static final By CONTAINER = By.className("inventory_container");
+    private static final By ADD_BUTTONS = By.cssSelector("[data-test^='add-to-cart']");
+    private static final By PRICES = By.className("inventory_item_price");
+    private static final By CART_BADGE = By.className("shopping_cart_badge");
+
+    private final Element container = present(CONTAINER);
+    private final Element cartBadge = present(CART_BADGE);
+    private final Element cartLink = present(By.className("shopping_cart_link"));
+    private final Element sortDropdown = present(By.className("product_sort_container"));
+    private final Element menuButton = present(By.id("react-burger-menu-btn"));
+    private final Element logoutLink = clickable(By.id("logout_sidebar_link"));
+
+    public InventoryPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public Element container() {
+        return container;
+    }
+
+    /**
+     * @param product the product's id in {@code data-test} attributes, e.g. {@code sauce-labs-backpack}
+     */
+    public Element addToCartButton(String product) {
+        return clickable(By.cssSelector("[data-test='add-to-cart-" + product + "']"));
+    }
+
+    public Element removeButton(String product) {
+        return present(By.cssSelector("[data-test='remove-" + product + "']"));
+    }
+
+    /**
+     * Adds the first {@code count} products, with real pointer clicks sent as one action sequence.
+     */
+    public void addFirstProducts(int count) {
+        List<WebElement> buttons = waits().all(ADD_BUTTONS);
+        bulk().click(buttons.subList(0, Math.min(count, buttons.size())));
+    }
+
+    public Element cartBadge() {
+        return cartBadge;
+    }
+
+    public boolean cartBadgeGone() {
+        return waits().absent(CART_BADGE);
+    }
+
+    public void sortBy(String value) {
+        new Select(sortDropdown.get()).selectByValue(value);
+    }
+
+    /**
+     * Prices as displayed, in list order.
+     */
+    public List<String> prices() {
+        waits().present(PRICES);
+        return bulk().texts(PRICES);
+    }
+
+    public CartPage openCart() {
+        cartLink.click();
+        left();
+        return new CartPage(cache());
+    }
+
+    public SauceLoginPage logout() {
+        menuButton.click();
+        logoutLink.click();
+        left();
+        return new SauceLoginPage(cache());
+    }
+}
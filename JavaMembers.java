@@ -0,0 +1,116 @@
+package com.launchable.demo.selection;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the line span of each method declared directly in a Java source file's top-level
+ * class, enough to tell which methods a diff hunk touched. Not a parser: it tracks braces
+ * outside strings and comments and recognises a method as a block opened after
+ * {@code name(...)} at class-body depth.
+ */
+final class JavaMembers {
+    private static final Pattern SIGNATURE = Pattern.compile("(\\w+)\\s*\\([^;{}()]*\\)\\s*(throws\\s+[\\w.,\\s]+)?$");
+    private static final Set<String> NOT_METHODS = Set.of("if", "for", "while", "switch", "catch", "synchronized", "try");
+
+    private JavaMembers() {
+    }
+
+    /**
+     * Method name to {first line, last line}, 1-based and inclusive. The span starts after
+     * the previous member, so annotations and doc comments belong to the method. Overloads
+     * share a name and are merged.
+     */
+    static Map<String, int[]> methods(List<String> lines) {
+        Map<String, int[]> methods = new LinkedHashMap<>();
+        StringBuilder pending = new StringBuilder();
+        int depth = 0;
+        int memberStart = 1;
+        String current = null;
+        int currentStart = 0;
+        boolean memberBlock = false;
+        boolean blockComment = false;
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int lineNo = n + 1;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (blockComment) {
+                    if (c == '*' && i + 1 < line.length() && line.charAt(i + 1) == '/') {
+                        blockComment = false;
+                        i++;
+                    }
+                    continue;
+                }
+                if (c == '/' && i + 1 < line.length() && line.charAt(i + 1) == '/') {
+                    break;
+                }
+                if (c == '/' && i + 1 < line.length() && line.charAt(i + 1) == '*') {
+                    blockComment = true;
+                    i++;
+                    continue;
+                }
+                if (c == '"' || c == '\'') {
+                    i = skipLiteral(line, i, c);
+                    pending.append(' ');
+                    continue;
+                }
+                if (c == '{') {
+                    if (depth == 1) {
+                        String head = pending.toString().trim();
+                        Matcher signature = SIGNATURE.matcher(head);
+                        if (signature.find() && !NOT_METHODS.contains(signature.group(1))) {
+                            current = signature.group(1);
+                            currentStart = memberStart;
+                        }
+                        // Array values in annotations, e.g. groups = {...}, belong to the next member
+                        memberBlock = !(head.endsWith("=") || head.endsWith("(") || head.endsWith(","));
+                    }
+                    depth++;
+                    pending.setLength(0);
+                } else if (c == '}') {
+                    depth--;
+                    if (depth == 1) {
+                        if (current != null) {
+                            int[] span = methods.get(current);
+                            methods.put(current, span == null
+                                ? new int[] {currentStart, lineNo}
+                                : new int[] {Math.min(span[0], currentStart), Math.max(span[1], lineNo)});
+                            current = null;
+                        }
+                        if (memberBlock) {
+                            memberStart = lineNo + 1;
+                        }
+                    }
+                    pending.setLength(0);
+                } else if (c == ';') {
+                    if (depth == 1) {
+                        memberStart = lineNo + 1;
+                    }
+                    pending.setLength(0);
+                } else {
+                    pending.append(c);
+                }
+            }
+            pending.append(' ');
+        }
+        return methods;
+    }
+
+    private static int skipLiteral(String line, int start, char quote) {
+        for (int i = start + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return line.length();
+    }
+}
@@ -0,0 +1,75 @@
+package com.launchable.demo.metrics;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Times every call made through an {@link org.openqa.selenium.support.events.EventFiringDecorator}
+ * and feeds it to {@link CommandMetrics} as {@code <target>.<method>}, e.g. {@code driver.get}
+ * or {@code element.click}. Failed calls are recorded as {@code <target>.<method>.error}.
+ */
+public class LatencyListener implements WebDriverListener {
+    // Accessors that only hand out another decorated object and never reach the browser
+    private static final Set<String> LOCAL_ACCESSORS = Set.of("manage", "navigate", "switchTo", "timeouts", "window");
+
+    private final ThreadLocal<Deque<Long>> starts = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        starts.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(target, method, "");
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(target, method, ".error");
+    }
+
+    private void finish(Object target, Method method, String suffix) {
+        Long start = starts.get().poll();
+        if (start == null || LOCAL_ACCESSORS.contains(method.getName())) {
+            return;
+        }
+        CommandMetrics.getInstance().record(kind(target) + "." + method.getName() + suffix, System.nanoTime() - start);
+    }
+
+    static String kind(Object target) {
+        if (target instanceof WebDriver) {
+            return "driver";
+        }
+        if (target instanceof WebElement) {
+            return "element";
+        }
+        if (target instanceof WebDriver.Navigation) {
+            return "navigate";
+        }
+        if (target instanceof Alert) {
+            return "alert";
+        }
+        if (target instanceof WebDriver.TargetLocator) {
+            return "switchTo";
+        }
+        if (target instanceof WebDriver.Timeouts) {
+            return "timeouts";
+        }
+        if (target instanceof WebDriver.Window) {
+            return "window";
+        }
+        if (target instanceof WebDriver.Options) {
+            return "options";
+        }
+        return target.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,118 @@
+package com.launchable.demo.base;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Small files the suite keeps between runs (recorded durations, learned timeouts, page-load
+ * baselines, ...), under {@code .e2e-cache/} or {@code -De2e.cache.dir}. CI jobs can carry
+ * the directory over with their cache configuration.
+ */
+public final class LocalStore {
+    private static final Map<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private LocalStore() {
+    }
+
+    public static Path dir() {
+        Path dir = Paths.get(System.getProperty("e2e.cache.dir", ".e2e-cache"));
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create " + dir, e);
+        }
+        return dir;
+    }
+
+    public static Path file(String name) {
+        return dir().resolve(name);
+    }
+
+    /**
+     * Loads a properties file from the store; a missing or unreadable file reads as empty.
+     */
+    public static Properties load(String name) {
+        Properties properties = new Properties();
+        Path file = file(name);
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                // A corrupt store only costs us history
+                properties.clear();
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Loads a properties file, applies {@code change} and saves it, holding a lock on the
+     * file throughout, so runs sharing the store at the same time (shards on one machine)
+     * add to each other's changes rather than the last one overwriting the rest.
+     */
+    public static void update(String name, Consumer<Properties> change, String comment) {
+        locked(name, () -> {
+            Properties properties = load(name);
+            change.accept(properties);
+            save(name, properties, comment);
+        });
+    }
+
+    /**
+     * Runs {@code action} holding the same lock as {@link #update}, for stores that are not
+     * properties files but are read, merged and written back the same way.
+     */
+    public static void locked(String name, Runnable action) {
+        Path lock = file(name + ".lock");
+        // A file lock only keeps other processes out; threads of this one queue here
+        synchronized (MONITORS.computeIfAbsent(name, k -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                action.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot lock " + lock, e);
+            }
+        }
+    }
+
+    /**
+     * Replaces a properties file atomically, so a run killed mid-write leaves the old one.
+     */
+    public static void save(String name, Properties properties, String comment) {
+        StringWriter content = new StringWriter();
+        try {
+            properties.store(content, comment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + file(name), e);
+        }
+        write(name, content.toString());
+    }
+
+    /**
+     * Replaces a file atomically, so a run killed mid-write leaves the old one.
+     */
+    public static void write(String name, String content) {
+        Path file = file(name);
+        try {
+            Path temp = Files.createTempFile(file.getParent(), name, ".tmp");
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + file, e);
+        }
+    }
+}
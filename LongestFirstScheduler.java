@@ -0,0 +1,121 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.metrics.TestDurations;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the methods of each {@code <test>} longest first, so the slowest tests start while
+ * every worker thread is still free instead of trailing at the end (LPT scheduling).
+ *
+ * <p>Durations come from {@link TestDurations}. With {@code parallel="methods"} TestNG
+ * hands free methods to threads by priority, so the order is enforced by renumbering
+ * priorities; the declared priorities only break ties. After each {@code <test>} the
+ * predicted makespan is logged next to the actual one, and the run's figures go to
+ * {@code schedule.json}. {@code -Dtest.schedule=priority} keeps the declared order.
+ */
+public class LongestFirstScheduler implements IMethodInterceptor, ITestListener, IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(LongestFirstScheduler.class);
+    private static final boolean ENABLED = !"priority".equalsIgnoreCase(System.getProperty("test.schedule", "duration"));
+
+    private final Map<String, Map<String, Object>> plans = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        TestDurations durations = TestDurations.getInstance();
+        int threads = threads(context.getCurrentXmlTest());
+        List<IMethodInstance> declared = new ArrayList<>(methods);
+        declared.sort(Comparator.comparingInt(m -> m.getMethod().getPriority()));
+        List<IMethodInstance> ordered = new ArrayList<>(declared);
+        if (ENABLED) {
+            // Stable sort: equal predictions keep their declared order
+            ordered.sort(Comparator.comparingLong((IMethodInstance m) -> durations.predict(name(m.getMethod()))).reversed());
+            for (int i = 0; i < ordered.size(); i++) {
+                ordered.get(i).getMethod().setPriority(i);
+            }
+        }
+
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("threads", threads);
+        plan.put("methods", ordered.size());
+        plan.put("withHistory", ordered.stream().filter(m -> durations.isKnown(name(m.getMethod()))).count());
+        plan.put("predictedMs", makespan(ordered, threads, durations));
+        plan.put("declaredOrderPredictedMs", makespan(declared, threads, durations));
+        plans.put(context.getName(), plan);
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        Map<String, Object> plan = plans.get(context.getName());
+        if (plan == null) {
+            return;
+        }
+        long actual = context.getEndDate().getTime() - context.getStartDate().getTime();
+        plan.put("actualMs", actual);
+        LOG.info("{}: {} methods on {} threads, predicted makespan {} ms (declared order {} ms), actual {} ms",
+            context.getName(), plan.get("methods"), plan.get("threads"), plan.get("predictedMs"),
+            plan.get("declaredOrderPredictedMs"), actual);
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        TestDurations.getInstance().save();
+        Path report = Paths.get(outputDirectory, "schedule.json");
+        try {
+            Files.createDirectories(report.getParent());
+            Files.write(report, new Json().toJson(plans).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", report, e.getMessage());
+        }
+    }
+
+    static String name(ITestNGMethod method) {
+        return method.getRealClass().getSimpleName() + "." + method.getMethodName();
+    }
+
+    private static int threads(XmlTest test) {
+        return test.getParallel() == XmlSuite.ParallelMode.METHODS ? Math.max(1, test.getThreadCount()) : 1;
+    }
+
+    /**
+     * Wall-clock time of running {@code methods} in this order, each on whichever thread
+     * frees up first.
+     */
+    private static long makespan(List<IMethodInstance> methods, int threads, TestDurations durations) {
+        PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            loads.add(0L);
+        }
+        long makespan = 0;
+        for (IMethodInstance method : methods) {
+            long finish = loads.poll() + durations.predict(name(method.getMethod()));
+            loads.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+}
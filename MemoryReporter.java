@@ -0,0 +1,43 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.MemoryWatchdog;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the {@link MemoryWatchdog}'s per-session memory timelines to {@code memory.json}
+ * in the TestNG output directory.
+ */
+public class MemoryReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(MemoryReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        MemoryWatchdog watchdog = MemoryWatchdog.getInstance();
+        if (!watchdog.isEnabled()) {
+            return;
+        }
+        Map<String, Object> report = watchdog.report();
+        LOG.info("Memory watchdog: {} sessions recycled for memory, {} killed after a failed quit",
+            report.get("recycled"), report.get("killed"));
+        Path file = Paths.get(outputDirectory, "memory.json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Watches the memory of pooled browsers so that a leaking session is recycled between tests
+ * instead of slowing down, or crashing, the ones after it.
+ *
+ * <p>Every session is sampled when it goes back to the pool: its JS heap through CDP
+ * ({@code Runtime.getHeapUsage}, Chrome only) and, for local browsers, the resident memory
+ * of the browser process tree. Local browsers get a profile directory of their own so that
+ * tree can be found. A session over {@code watchdog.heap.mb} (default 256) or
+ * {@code watchdog.rss.mb} (default 1536) is quit rather than reused. A quit that has not
+ * returned after {@code watchdog.quit.timeout.ms} (default 15000) kills the browser
+ * processes and the chromedriver or geckodriver that started them, which would otherwise
+ * live on and be counted as a browser by {@link ConcurrencyController}.
+ * {@code -Dwatchdog.enabled=false} turns the sampling off.
+ */
+public final class MemoryWatchdog {
+    private static final Logger LOG = LoggerFactory.getLogger(MemoryWatchdog.class);
+    private static final MemoryWatchdog INSTANCE = new MemoryWatchdog(
+        Boolean.parseBoolean(System.getProperty("watchdog.enabled", "true")),
+        Long.getLong("watchdog.heap.mb", 256) << 20,
+        Long.getLong("watchdog.rss.mb", 1536) << 20,
+        Long.getLong("watchdog.quit.timeout.ms", 15_000));
+
+    private final boolean enabled;
+    private final long heapLimit;
+    private final long rssLimit;
+    private final long quitTimeoutMillis;
+    private final long startMillis = System.currentTimeMillis();
+    private final Map<WebDriver, Watched> sessions = new ConcurrentHashMap<>();
+    private final List<Watched> ended = new ArrayList<>();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final AtomicInteger recycled = new AtomicInteger();
+    private final AtomicInteger killed = new AtomicInteger();
+    private final ExecutorService quitter = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "browser-quit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MemoryWatchdog(boolean enabled, long heapLimit, long rssLimit, long quitTimeoutMillis) {
+        this.enabled = enabled;
+        this.heapLimit = heapLimit;
+        this.rssLimit = rssLimit;
+        this.quitTimeoutMillis = quitTimeoutMillis;
+    }
+
+    public static MemoryWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A fresh profile directory for a local browser, which marks its processes.
+     */
+    Path newProfileDir(String browser) {
+        try {
+            return Files.createTempDirectory("e2e-" + browser + "-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create a browser profile directory", e);
+        }
+    }
+
+    /**
+     * Starts watching a session created by {@link DriverFactory}.
+     *
+     * @param profileDir the directory its processes were started with, or {@code null} for
+     *                   a remote browser
+     */
+    void register(WebDriver driver, String browser, Path profileDir) {
+        Watched watched = new Watched(browser + "-" + ids.incrementAndGet(), profileDir);
+        // Found while the browser runs: after a hung quit it may be gone, its driver not
+        watched.drivers.addAll(watched.drivers());
+        sessions.put(driver, watched);
+    }
+
+    /**
+     * Samples a session returned by {@code test} and says whether it has grown past the
+     * thresholds and should be recycled.
+     */
+    boolean shouldRecycle(WebDriver driver, String test) {
+        Watched watched = sessions.get(driver);
+        if (!enabled || watched == null) {
+            return false;
+        }
+        long heap = jsHeap(driver);
+        long rss = watched.rss();
+        watched.samples.add(new Sample(System.currentTimeMillis() - startMillis, test, heap, rss));
+        String reason = heap > heapLimit ? "JS heap " + (heap >> 20) + " MB"
+            : rss > rssLimit ? "RSS " + (rss >> 20) + " MB" : null;
+        if (reason == null) {
+            return false;
+        }
+        watched.recycledFor = reason;
+        recycled.incrementAndGet();
+        LOG.info("Recycling {} after {}: {}", watched.id, test, reason);
+        return true;
+    }
+
+    /**
+     * Quits a session, killing its browser processes if the quit hangs or fails, and
+     * removes its profile directory.
+     */
+    void quit(WebDriver driver) {
+        Watched watched = sessions.remove(driver);
+        if (watched != null) {
+            synchronized (ended) {
+                ended.add(watched);
+            }
+        }
+        Future<?> quit = quitter.submit(driver::quit);
+        boolean clean = false;
+        try {
+            quit.get(quitTimeoutMillis, TimeUnit.MILLISECONDS);
+            clean = true;
+        } catch (TimeoutException e) {
+            quit.cancel(true);
+            LOG.warn("Browser {} did not quit within {} ms", watched != null ? watched.id : driver, quitTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (watched == null || watched.profileDir == null) {
+                throw e.getCause() instanceof WebDriverException
+                    ? (WebDriverException) e.getCause() : new WebDriverException(e.getCause());
+            }
+            LOG.warn("Browser {} failed to quit: {}", watched.id, e.getCause().getMessage());
+        } finally {
+            if (watched != null && watched.profileDir != null) {
+                if (!clean && watched.kill() > 0) {
+                    killed.incrementAndGet();
+                }
+                deleteQuietly(watched.profileDir);
+            }
+        }
+    }
+
+    /**
+     * Per-session memory timelines and totals for the run report.
+     */
+    public Map<String, Object> report() {
+        List<Watched> all = new ArrayList<>(sessions.values());
+        synchronized (ended) {
+            all.addAll(ended);
+        }
+        all.sort(Comparator.comparingInt(w -> Integer.parseInt(w.id.substring(w.id.lastIndexOf('-') + 1))));
+        Map<String, Object> timelines = new LinkedHashMap<>();
+        for (Watched watched : all) {
+            List<Map<String, Object>> samples = new ArrayList<>();
+            for (Sample sample : watched.samples) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("elapsedMs", sample.elapsedMillis);
+                entry.put("test", sample.test);
+                entry.put("jsHeapMb", megabytes(sample.heapBytes));
+                entry.put("rssMb", megabytes(sample.rssBytes));
+                samples.add(entry);
+            }
+            Map<String, Object> session = new LinkedHashMap<>();
+            session.put("recycledFor", watched.recycledFor);
+            session.put("samples", samples);
+            timelines.put(watched.id, session);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("heapLimitMb", heapLimit >> 20);
+        report.put("rssLimitMb", rssLimit >> 20);
+        report.put("recycled", recycled.get());
+        report.put("killed", killed.get());
+        report.put("sessions", timelines);
+        return report;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static long jsHeap(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            return -1;
+        }
+        try {
+            Object used = ((HasCdp) driver).executeCdpCommand("Runtime.getHeapUsage", Map.of()).get("usedSize");
+            return used instanceof Number ? ((Number) used).longValue() : -1;
+        } catch (WebDriverException e) {
+            return -1;
+        }
+    }
+
+    private static Double megabytes(long bytes) {
+        return bytes < 0 ? null : Math.round(bytes / 1048576.0 * 10) / 10.0;
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // Left for the OS to clean up with the rest of the temp directory
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            LOG.debug("Could not remove {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static final class Watched {
+        private final String id;
+        private final Path profileDir;
+        private final List<Sample> samples = new CopyOnWriteArrayList<>();
+        private final Set<ProcessHandle> drivers = new HashSet<>();
+        private volatile String recycledFor;
+
+        private Watched(String id, Path profileDir) {
+            this.id = id;
+            this.profileDir = profileDir;
+        }
+
+        /**
+         * Processes started with this session's profile directory, plus their children.
+         */
+        private Set<ProcessHandle> processes() {
+            Set<ProcessHandle> processes = new HashSet<>();
+            if (profileDir == null) {
+                return processes;
+            }
+            String marker = profileDir.toString();
+            ProcessHandle.allProcesses()
+                .filter(p -> p.info().commandLine().map(line -> line.contains(marker)).orElse(false))
+                .forEach(p -> {
+                    processes.add(p);
+                    p.descendants().forEach(processes::add);
+                });
+            return processes;
+        }
+
+        /**
+         * The driver processes that started this session's browser: the chromedriver or
+         * geckodriver parents of its processes.
+         */
+        private Set<ProcessHandle> drivers() {
+            Set<ProcessHandle> drivers = new HashSet<>();
+            for (ProcessHandle process : processes()) {
+                process.parent()
+                    .filter(parent -> parent.info().command()
+                        .map(command -> command.contains("chromedriver") || command.contains("geckodriver"))
+                        .orElse(false))
+                    .ifPresent(drivers::add);
+            }
+            return drivers;
+        }
+
+        private long rss() {
+            long total = -1;
+            for (ProcessHandle process : processes()) {
+                long rss = ProcessMemory.rss(process);
+                if (rss >= 0) {
+                    total = Math.max(total, 0) + rss;
+                }
+            }
+            return total;
+        }
+
+        private int kill() {
+            Set<ProcessHandle> processes = processes();
+            drivers.stream().filter(ProcessHandle::isAlive).forEach(processes::add);
+            processes.forEach(ProcessHandle::destroyForcibly);
+            if (!processes.isEmpty()) {
+                LOG.warn("Killed {} leftover processes of {}", processes.size(), id);
+            }
+            return processes.size();
+        }
+    }
+
+    private static final class Sample {
+        private final long elapsedMillis;
+        private final String test;
+        private final long heapBytes;
+        private final long rssBytes;
+
+        private Sample(long elapsedMillis, String test, long heapBytes, long rssBytes) {
+            this.elapsedMillis = elapsedMillis;
+            this.test = test;
+            this.heapBytes = heapBytes;
+            this.rssBytes = rssBytes;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.BrowserProfile;
+import com.launchable.demo.metrics.CommandMetrics;
+import com.launchable.demo.metrics.PageLoadMetrics;
+import com.launchable.demo.pages.ElementCache;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the run's WebDriver latency histograms to {@code command-latency.json} and the page
+ * load samples to {@code page-performance.json} in the TestNG output directory
+ * (target/surefire-reports under Maven), and logs the slowest steps. Page object element
+ * lookups saved by the {@link ElementCache} go to {@code element-cache.json}.
+ *
+ * <p>Under a non-default {@link BrowserProfile} it also writes {@code profile-comparison.json}:
+ * the per-navigation savings against the last run under the default profile.
+ */
+public class MetricsReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        CommandMetrics metrics = CommandMetrics.getInstance();
+        Path report = Paths.get(outputDirectory, "command-latency.json");
+        write(report, metrics.snapshot());
+        PageLoadMetrics pageLoads = PageLoadMetrics.getInstance();
+        write(Paths.get(outputDirectory, "page-performance.json"), pageLoads.snapshot());
+        LOG.info("{}\nFull latency report: {}", metrics.slowestSummary(), report);
+        Map<String, Object> elements = ElementCache.snapshot();
+        if (!elements.get("hits").equals(0L) || !elements.get("misses").equals(0L)) {
+            write(Paths.get(outputDirectory, "element-cache.json"), elements);
+            LOG.info("Page objects: {} element lookups served from cache, {} looked up ({} hit rate), {} stale",
+                elements.get("hits"), elements.get("misses"), elements.get("hitRate"), elements.get("stale"));
+        }
+
+        String profile = BrowserProfile.current().getName();
+        pageLoads.saveBaseline(profile);
+        if (!profile.equals("default")) {
+            Map<String, Object> comparison = pageLoads.compareWith("default");
+            if (comparison.isEmpty()) {
+                LOG.info("No default-profile baseline to compare the {} profile with; run once without -Dbrowser.profile",
+                    profile);
+            } else {
+                write(Paths.get(outputDirectory, "profile-comparison.json"), comparison);
+                logSavings(profile, comparison);
+            }
+        }
+    }
+
+    private static void logSavings(String profile, Map<String, Object> comparison) {
+        StringBuilder summary = new StringBuilder("Savings per navigation, " + profile + " vs default profile:");
+        comparison.forEach((url, metrics) -> {
+            Object navigation = ((Map<?, ?>) metrics).get("navigationMs");
+            if (navigation != null) {
+                Map<?, ?> delta = (Map<?, ?>) navigation;
+                summary.append(String.format("%n  %8.1f ms (%5.1f%%)  %s",
+                    delta.get("saved"), delta.get("savedPercent"), url));
+            }
+        });
+        LOG.info("{}", summary);
+    }
+
+    private static void write(Path report, Object content) {
+        try {
+            Files.createDirectories(report.getParent());
+            Files.write(report, new Json().toJson(content).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", report, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URL;
+
+/**
+ * Counts the navigations of one browser session, so cached element handles from before the
+ * last navigation are known to belong to a page that is gone.
+ */
+public class NavigationEpoch implements WebDriverListener {
+    private int epoch;
+
+    int current() {
+        return epoch;
+    }
+
+    /**
+     * Moves to a new epoch, for page changes the driver does not see as navigations such as
+     * a click on a link.
+     */
+    void advance() {
+        epoch++;
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url) {
+        advance();
+    }
+
+    @Override
+    public void afterTo(WebDriver.Navigation navigation, String url) {
+        advance();
+    }
+
+    @Override
+    public void afterTo(WebDriver.Navigation navigation, URL url) {
+        advance();
+    }
+
+    @Override
+    public void afterBack(WebDriver.Navigation navigation) {
+        advance();
+    }
+
+    @Override
+    public void afterForward(WebDriver.Navigation navigation) {
+        advance();
+    }
+
+    @Override
+    public void afterRefresh(WebDriver.Navigation navigation) {
+        advance();
+    }
+}
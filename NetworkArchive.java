@@ -0,0 +1,338 @@
+package com.launchable.demo.network;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recorded responses, one HAR 1.2 file per host ({@code <dir>/<host>/archive.har}).
+ *
+ * <p>Bodies are not inlined in the HAR: each is stored once under {@code <host>/bodies/},
+ * named by its SHA-1, and referenced from the entry's {@code response.content._file}, so
+ * replay can map them straight from disk.
+ *
+ * <p>A request can have been answered differently over a session, e.g. a login page
+ * before and after a failed login, so every distinct response is kept along with the
+ * cookies its request carried. Replay picks the response whose cookies the request carries
+ * as well; since replayed responses set the recorded cookies again, the browser walks the
+ * same sequence of pages it walked while recording.
+ */
+final class NetworkArchive {
+    private static final Logger LOG = LoggerFactory.getLogger(NetworkArchive.class);
+    private static final String HAR = "archive.har";
+
+    private final Path dir;
+    // In recording order per request key
+    private final Map<String, Map<String, List<Entry>>> byHost = new ConcurrentHashMap<>();
+
+    private NetworkArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    static NetworkArchive load(Path dir) {
+        NetworkArchive archive = new NetworkArchive(dir);
+        if (!Files.isDirectory(dir)) {
+            return archive;
+        }
+        try (DirectoryStream<Path> hosts = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path hostDir : hosts) {
+                Path har = hostDir.resolve(HAR);
+                if (Files.isRegularFile(har)) {
+                    archive.read(hostDir.getFileName().toString(), har);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read network archive " + dir, e);
+        }
+        return archive;
+    }
+
+    Set<String> hosts() {
+        return new TreeSet<>(byHost.keySet());
+    }
+
+    int size(String host) {
+        Map<String, List<Entry>> entries = byHost.get(host);
+        if (entries == null) {
+            return 0;
+        }
+        synchronized (entries) {
+            return entries.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    /**
+     * The response recorded for {@code key} whose request cookies {@code cookies} includes,
+     * preferring the one with the most cookies and then the latest; the latest response for
+     * {@code key} when none matches.
+     *
+     * @param cookies the request's cookies as {@code name=value} pairs
+     */
+    Entry find(String host, String key, Set<String> cookies) {
+        Map<String, List<Entry>> entries = byHost.get(host);
+        if (entries == null) {
+            return null;
+        }
+        synchronized (entries) {
+            List<Entry> candidates = entries.get(key);
+            if (candidates == null || candidates.isEmpty()) {
+                return null;
+            }
+            Entry best = null;
+            for (Entry entry : candidates) {
+                if (cookies.containsAll(entry.cookies) && (best == null || entry.cookies.size() >= best.cookies.size())) {
+                    best = entry;
+                }
+            }
+            return best != null ? best : candidates.get(candidates.size() - 1);
+        }
+    }
+
+    /**
+     * Adds the response for {@code entry}'s request, replacing one recorded under the same
+     * cookies. A response identical to one already recorded is kept once, under the cookies
+     * both requests had. The body is written to disk right away; the HAR itself is only
+     * written by {@link #save()}.
+     */
+    void put(Entry entry, byte[] body) {
+        String host = host(URI.create(entry.url));
+        if (body != null && body.length > 0) {
+            String name = sha1(body);
+            Path file = dir.resolve(host).resolve("bodies").resolve(name);
+            try {
+                if (!Files.exists(file)) {
+                    Files.createDirectories(file.getParent());
+                    Path temp = Files.createTempFile(file.getParent(), name, ".tmp");
+                    Files.write(temp, body);
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not store response body of {}: {}", entry.url, e.getMessage());
+                return;
+            }
+            entry.bodyFile = "bodies/" + name;
+            entry.size = body.length;
+        }
+        Map<String, List<Entry>> entries = byHost.computeIfAbsent(host, k -> new LinkedHashMap<>());
+        synchronized (entries) {
+            add(entries.computeIfAbsent(entry.key(), k -> new ArrayList<>()), entry);
+        }
+    }
+
+    private static void add(List<Entry> recorded, Entry entry) {
+        for (Entry existing : recorded) {
+            if (existing.sameResponse(entry)) {
+                existing.cookies.retainAll(entry.cookies);
+                return;
+            }
+        }
+        recorded.removeIf(existing -> existing.cookies.equals(entry.cookies));
+        recorded.add(entry);
+    }
+
+    Path body(String host, Entry entry) {
+        return dir.resolve(host).resolve(entry.bodyFile);
+    }
+
+    void save() {
+        for (Map.Entry<String, Map<String, List<Entry>>> host : byHost.entrySet()) {
+            List<Object> entries = new ArrayList<>();
+            synchronized (host.getValue()) {
+                host.getValue().values().forEach(recorded -> recorded.forEach(entry -> entries.add(entry.toHar())));
+            }
+            Map<String, Object> log = new LinkedHashMap<>();
+            log.put("version", "1.2");
+            log.put("creator", Map.of("name", "e2e-launchable", "version", "1.0"));
+            log.put("entries", entries);
+            Path har = dir.resolve(host.getKey()).resolve(HAR);
+            try {
+                Files.createDirectories(har.getParent());
+                Files.write(har, new Json().toJson(Map.of("log", log)).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                LOG.warn("Could not write {}: {}", har, e.getMessage());
+            }
+        }
+    }
+
+    private void read(String host, Path har) throws IOException {
+        Map<String, Object> root = new Json().toType(Files.readString(har), Json.MAP_TYPE);
+        Map<?, ?> log = (Map<?, ?>) root.get("log");
+        Map<String, List<Entry>> entries = byHost.computeIfAbsent(host, k -> new LinkedHashMap<>());
+        for (Object item : (List<?>) log.get("entries")) {
+            Entry entry = Entry.fromHar((Map<?, ?>) item);
+            add(entries.computeIfAbsent(entry.key(), k -> new ArrayList<>()), entry);
+        }
+    }
+
+    /**
+     * The directory name of a URL's host, with the port when it is not the default.
+     */
+    static String host(URI uri) {
+        return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + "_" + uri.getPort();
+    }
+
+    /**
+     * What identifies a request within its host: method, path and query and, for requests
+     * with a body, a hash of the body (so a valid and an invalid form post differ).
+     */
+    static String key(String method, String pathAndQuery, String postData) {
+        String key = method.toUpperCase() + " " + pathAndQuery;
+        return postData == null || postData.isEmpty()
+            ? key
+            : key + " #" + sha1(postData.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /**
+     * The {@code name=value} pairs of a {@code Cookie} request header.
+     */
+    static Set<String> cookies(String header) {
+        Set<String> cookies = new TreeSet<>();
+        if (header != null) {
+            for (String cookie : header.split(";")) {
+                if (!cookie.isBlank()) {
+                    cookies.add(cookie.trim());
+                }
+            }
+        }
+        return cookies;
+    }
+
+    private static String sha1(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One recorded request and its response.
+     */
+    static final class Entry {
+        String method;
+        String url;
+        String postData;
+        Set<String> cookies = new TreeSet<>();
+        int status;
+        String statusText = "";
+        String mimeType = "";
+        List<Map<String, String>> headers = new ArrayList<>();
+        String bodyFile;
+        long size;
+
+        String key() {
+            URI uri = URI.create(url);
+            String pathAndQuery = (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath())
+                + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+            return NetworkArchive.key(method, pathAndQuery, postData);
+        }
+
+        boolean sameResponse(Entry other) {
+            return status == other.status && Objects.equals(bodyFile, other.bodyFile) && headers.equals(other.headers);
+        }
+
+        boolean isText() {
+            String mime = mimeType.toLowerCase();
+            return mime.startsWith("text/") || mime.contains("javascript") || mime.contains("json") || mime.contains("xml");
+        }
+
+        Map<String, Object> toHar() {
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("method", method);
+            request.put("url", url);
+            request.put("httpVersion", "HTTP/1.1");
+            request.put("headers", List.of());
+            request.put("queryString", List.of());
+            List<Map<String, String>> requestCookies = new ArrayList<>();
+            for (String cookie : cookies) {
+                int equals = cookie.indexOf('=');
+                requestCookies.add(equals < 0 ? Map.of("name", cookie, "value", "")
+                    : Map.of("name", cookie.substring(0, equals), "value", cookie.substring(equals + 1)));
+            }
+            request.put("cookies", requestCookies);
+            request.put("headersSize", -1);
+            request.put("bodySize", postData == null ? 0 : postData.length());
+            if (postData != null) {
+                request.put("postData", Map.of("mimeType", "", "text", postData));
+            }
+            Map<String, Object> content = new LinkedHashMap<>();
+            content.put("size", size);
+            content.put("mimeType", mimeType);
+            if (bodyFile != null) {
+                content.put("_file", bodyFile);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("status", status);
+            response.put("statusText", statusText);
+            response.put("httpVersion", "HTTP/1.1");
+            response.put("headers", headers);
+            response.put("cookies", List.of());
+            response.put("content", content);
+            response.put("redirectURL", "");
+            response.put("headersSize", -1);
+            response.put("bodySize", size);
+            Map<String, Object> har = new LinkedHashMap<>();
+            har.put("startedDateTime", Instant.now().toString());
+            har.put("time", 0);
+            har.put("request", request);
+            har.put("response", response);
+            har.put("cache", Map.of());
+            har.put("timings", Map.of("send", 0, "wait", 0, "receive", 0));
+            return har;
+        }
+
+        static Entry fromHar(Map<?, ?> har) {
+            Map<?, ?> request = (Map<?, ?>) har.get("request");
+            Map<?, ?> response = (Map<?, ?>) har.get("response");
+            Map<?, ?> content = (Map<?, ?>) response.get("content");
+            Entry entry = new Entry();
+            entry.method = String.valueOf(request.get("method"));
+            entry.url = String.valueOf(request.get("url"));
+            if (request.get("postData") instanceof Map) {
+                entry.postData = String.valueOf(((Map<?, ?>) request.get("postData")).get("text"));
+            }
+            if (request.get("cookies") instanceof List) {
+                for (Object cookie : (List<?>) request.get("cookies")) {
+                    Map<?, ?> c = (Map<?, ?>) cookie;
+                    entry.cookies.add(c.get("name") + "=" + c.get("value"));
+                }
+            }
+            entry.status = ((Number) response.get("status")).intValue();
+            entry.statusText = String.valueOf(response.get("statusText"));
+            entry.mimeType = String.valueOf(content.get("mimeType"));
+            for (Object header : (List<?>) response.get("headers")) {
+                Map<?, ?> h = (Map<?, ?>) header;
+                entry.headers.add(Map.of("name", String.valueOf(h.get("name")), "value", String.valueOf(h.get("value"))));
+            }
+            if (content.get("_file") != null) {
+                entry.bodyFile = String.valueOf(content.get("_file"));
+                entry.size = ((Number) content.get("size")).longValue();
+            }
+            return entry;
+        }
+    }
+}
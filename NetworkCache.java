@@ -0,0 +1,187 @@
+package com.launchable.demo.network;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Where the sites under test are fetched from, chosen with {@code -Dnetwork.mode}:
+ *
+ * <ul>
+ *   <li>{@code live} (default): straight from the internet.</li>
+ *   <li>{@code record}: from the internet, while every response Chromium sessions receive
+ *       is written to the archive ({@code -Dnetwork.archive}, default {@code network-archive}).</li>
+ *   <li>{@code replay}: from the archive only. Each recorded host gets a {@link ReplayServer}
+ *       on a loopback port, and navigations to it are rewritten on the way to the browser,
+ *       so tests keep their real URLs and need no network at all.</li>
+ * </ul>
+ */
+public final class NetworkCache {
+    private static final Logger LOG = LoggerFactory.getLogger(NetworkCache.class);
+    private static final NetworkCache INSTANCE = new NetworkCache(
+        System.getProperty("network.mode", "live").trim().toLowerCase(),
+        Paths.get(System.getProperty("network.archive", "network-archive")));
+
+    private final String mode;
+    private final Path dir;
+    private final NetworkArchive archive;
+    private final Map<String, ReplayServer> servers = new TreeMap<>();
+    private final Map<WebDriver, Object> recording = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private NetworkCache(String mode, Path dir) {
+        if (!mode.equals("live") && !mode.equals("record") && !mode.equals("replay")) {
+            throw new IllegalArgumentException("Unknown network.mode: " + mode + " (expected live, record or replay)");
+        }
+        this.mode = mode;
+        this.dir = dir;
+        this.archive = mode.equals("live") ? null : NetworkArchive.load(dir);
+        if (mode.equals("replay")) {
+            if (archive.hosts().isEmpty()) {
+                throw new IllegalStateException("network.mode=replay but " + dir.toAbsolutePath()
+                    + " holds no recordings; run once with -Dnetwork.mode=record");
+            }
+            for (String host : archive.hosts()) {
+                servers.put(host, new ReplayServer(host, archive, this::rewriteText));
+            }
+            LOG.info("Replaying {} from {}", servers.keySet(), dir);
+        }
+    }
+
+    public static NetworkCache getInstance() {
+        return INSTANCE;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts recording {@code session} in record mode; once per session, so it is safe to
+     * call on every lease. {@code session} must be the undecorated driver.
+     */
+    public void attach(WebDriver session) {
+        if (!mode.equals("record")) {
+            return;
+        }
+        recording.computeIfAbsent(session, s -> {
+            NetworkRecorder recorder = NetworkRecorder.attach(s, archive);
+            if (recorder == null) {
+                LOG.warn("{} has no DevTools; its traffic is not recorded", s.getClass().getSimpleName());
+                return Boolean.FALSE;
+            }
+            return recorder;
+        });
+    }
+
+    /**
+     * In replay mode, wraps {@code driver} so that {@code get} and {@code navigate().to}
+     * go to the replay servers; otherwise returns it unchanged.
+     */
+    public WebDriver decorate(WebDriver driver) {
+        if (!mode.equals("replay")) {
+            return driver;
+        }
+        return new WebDriverDecorator<WebDriver>() {
+            @Override
+            public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+                if (args != null && args.length == 1 && (method.getName().equals("get") || method.getName().equals("to"))) {
+                    if (args[0] instanceof String) {
+                        args = new Object[] {rewrite((String) args[0])};
+                    } else if (args[0] instanceof URL) {
+                        args = new Object[] {new URL(rewrite(args[0].toString()))};
+                    }
+                }
+                return super.call(target, method, args);
+            }
+        }.decorate(driver);
+    }
+
+    /**
+     * The replayed equivalent of {@code url}: same path, query and credentials, on the
+     * replay server of its host. URLs of hosts that were never recorded are returned as is.
+     */
+    public String rewrite(String url) {
+        if (!mode.equals("replay") || !url.startsWith("http")) {
+            return url;
+        }
+        URI uri = URI.create(url);
+        ReplayServer server = servers.get(NetworkArchive.host(uri));
+        if (server == null) {
+            return url;
+        }
+        URI origin = URI.create(server.origin());
+        StringBuilder local = new StringBuilder("http://");
+        if (uri.getRawUserInfo() != null) {
+            local.append(uri.getRawUserInfo()).append('@');
+        }
+        local.append(origin.getHost()).append(':').append(origin.getPort());
+        local.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            local.append('?').append(uri.getRawQuery());
+        }
+        if (uri.getRawFragment() != null) {
+            local.append('#').append(uri.getRawFragment());
+        }
+        return local.toString();
+    }
+
+    private String rewriteText(String text) {
+        String result = text;
+        for (Map.Entry<String, ReplayServer> server : servers.entrySet()) {
+            String host = server.getKey().replace('_', ':');
+            String origin = server.getValue().origin();
+            result = result.replace("https://" + host, origin)
+                .replace("http://" + host, origin)
+                .replace("//" + host, origin.substring("http:".length()));
+        }
+        return result;
+    }
+
+    /**
+     * Ends the run: writes the archive in record mode, stops the replay servers in replay
+     * mode. Returns what was recorded or how well the archive served the run.
+     */
+    public synchronized Map<String, Object> finish() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        if (mode.equals("record")) {
+            NetworkRecorder.drain();
+            archive.save();
+            Map<String, Object> recorded = new TreeMap<>();
+            archive.hosts().forEach(host -> recorded.put(host, archive.size(host)));
+            report.put("archive", dir.toAbsolutePath().toString());
+            report.put("recorded", recorded);
+            LOG.info("Recorded {} into {}", recorded, dir);
+        } else if (mode.equals("replay")) {
+            long hits = 0;
+            long misses = 0;
+            Map<String, Object> hosts = new TreeMap<>();
+            for (Map.Entry<String, ReplayServer> server : servers.entrySet()) {
+                hosts.put(server.getKey(), server.getValue().stats());
+                hits += server.getValue().hits();
+                misses += server.getValue().misses();
+                server.getValue().stop();
+            }
+            double hitRate = hits + misses == 0 ? 1.0 : Math.round(1000.0 * hits / (hits + misses)) / 1000.0;
+            report.put("hits", hits);
+            report.put("misses", misses);
+            report.put("hitRate", hitRate);
+            report.put("hosts", hosts);
+            LOG.info("Network replay served {} of {} requests from the archive (hit rate {})", hits, hits + misses, hitRate);
+        }
+        return report;
+    }
+}
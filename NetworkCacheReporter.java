@@ -0,0 +1,39 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.network.NetworkCache;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Closes the {@link NetworkCache} at the end of the run and, when recording or replaying,
+ * writes what it did to {@code network-cache.json} in the TestNG output directory.
+ */
+public class NetworkCacheReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(NetworkCacheReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        NetworkCache cache = NetworkCache.getInstance();
+        if (cache.getMode().equals("live")) {
+            return;
+        }
+        Path report = Paths.get(outputDirectory, "network-cache.json");
+        try {
+            Files.createDirectories(report.getParent());
+            Files.write(report, new Json().toJson(cache.finish()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", report, e.getMessage());
+        }
+    }
+}
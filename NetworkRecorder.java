@@ -0,0 +1,189 @@
+package com.launchable.demo.network;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies every HTTP response one Chromium session receives into a {@link NetworkArchive},
+ * following the DevTools {@code Network} events. Redirects are kept as their own entries so
+ * replay can follow the same chain.
+ *
+ * <p>Bodies are fetched with {@code Network.getResponseBody} off the DevTools event thread,
+ * which must not block on a command of its own. The cookies each request carried come from
+ * {@code Network.requestWillBeSentExtraInfo}, one event per hop of a redirect chain, in order.
+ */
+final class NetworkRecorder {
+    private static final Logger LOG = LoggerFactory.getLogger(NetworkRecorder.class);
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService BODIES = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "network-recorder-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final NetworkArchive archive;
+    private final DevTools devTools;
+    private final Map<String, NetworkArchive.Entry> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Queue<String>> cookieHeaders = new ConcurrentHashMap<>();
+
+    private NetworkRecorder(NetworkArchive archive, DevTools devTools) {
+        this.archive = archive;
+        this.devTools = devTools;
+    }
+
+    /**
+     * Starts recording {@code session}, or returns {@code null} when it has no DevTools.
+     */
+    static NetworkRecorder attach(Object session, NetworkArchive archive) {
+        if (!(session instanceof HasDevTools)) {
+            return null;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) session).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            NetworkRecorder recorder = new NetworkRecorder(archive, devTools);
+            devTools.addListener(event("Network.requestWillBeSent"), recorder::onRequest);
+            devTools.addListener(event("Network.requestWillBeSentExtraInfo"), recorder::onRequestHeaders);
+            devTools.addListener(event("Network.responseReceived"), recorder::onResponse);
+            devTools.addListener(event("Network.loadingFinished"), recorder::onFinished);
+            devTools.addListener(event("Network.loadingFailed"), params -> {
+                recorder.inFlight.remove(requestId(params));
+                recorder.cookieHeaders.remove(requestId(params));
+            });
+            devTools.send(new Command<Void>("Network.enable", Map.of()));
+            // A 304 answered from the browser cache has no body to record
+            devTools.send(new Command<Void>("Network.setCacheDisabled", Map.of("cacheDisabled", true)));
+            return recorder;
+        } catch (WebDriverException e) {
+            LOG.warn("Cannot record network traffic of this session: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Waits for bodies still being fetched, so {@link NetworkArchive#save()} sees them.
+     */
+    static void drain() {
+        try {
+            BODIES.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOG.warn("Gave up waiting for recorded response bodies: {}", e.toString());
+        }
+    }
+
+    private void onRequest(Map<?, ?> params) {
+        String id = requestId(params);
+        Map<?, ?> request = (Map<?, ?>) params.get("request");
+        NetworkArchive.Entry previous = inFlight.remove(id);
+        if (previous != null && params.get("redirectResponse") instanceof Map) {
+            // The same request id carries on to the redirect target; keep the hop itself
+            fill(previous, (Map<?, ?>) params.get("redirectResponse"));
+            previous.cookies = NetworkArchive.cookies(nextCookieHeader(id));
+            archive.put(previous, null);
+        }
+        String url = String.valueOf(request.get("url"));
+        if (!url.startsWith("http")) {
+            return;
+        }
+        NetworkArchive.Entry entry = new NetworkArchive.Entry();
+        entry.method = String.valueOf(request.get("method"));
+        entry.url = url;
+        entry.postData = request.get("postData") == null ? null : String.valueOf(request.get("postData"));
+        inFlight.put(id, entry);
+    }
+
+    private void onRequestHeaders(Map<?, ?> params) {
+        String cookie = "";
+        Object headers = params.get("headers");
+        if (headers instanceof Map) {
+            for (Map.Entry<?, ?> header : ((Map<?, ?>) headers).entrySet()) {
+                if (String.valueOf(header.getKey()).equalsIgnoreCase("cookie")) {
+                    cookie = String.valueOf(header.getValue());
+                }
+            }
+        }
+        // Even without cookies, so every hop of a redirect chain takes its own event
+        cookieHeaders.computeIfAbsent(requestId(params), k -> new ConcurrentLinkedQueue<>()).add(cookie);
+    }
+
+    private String nextCookieHeader(String id) {
+        Queue<String> headers = cookieHeaders.get(id);
+        return headers == null ? null : headers.poll();
+    }
+
+    private void onResponse(Map<?, ?> params) {
+        NetworkArchive.Entry entry = inFlight.get(requestId(params));
+        if (entry != null) {
+            fill(entry, (Map<?, ?>) params.get("response"));
+        }
+    }
+
+    private void onFinished(Map<?, ?> params) {
+        String id = requestId(params);
+        NetworkArchive.Entry entry = inFlight.remove(id);
+        String cookie = nextCookieHeader(id);
+        cookieHeaders.remove(id);
+        if (entry == null || entry.status == 0) {
+            return;
+        }
+        entry.cookies = NetworkArchive.cookies(cookie);
+        BODIES.execute(() -> archive.put(entry, body(id, entry)));
+    }
+
+    private byte[] body(String id, NetworkArchive.Entry entry) {
+        if (entry.status == 204 || entry.status == 304 || entry.method.equals("HEAD")) {
+            return null;
+        }
+        try {
+            Map<?, ?> result = devTools.send(new Command<Map<?, ?>>(
+                "Network.getResponseBody", Map.of("requestId", id), input -> input.read(Map.class)));
+            String body = String.valueOf(result.get("body"));
+            return Boolean.TRUE.equals(result.get("base64Encoded"))
+                ? Base64.getDecoder().decode(body)
+                : body.getBytes(StandardCharsets.UTF_8);
+        } catch (WebDriverException e) {
+            LOG.debug("No body recorded for {}: {}", entry.url, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void fill(NetworkArchive.Entry entry, Map<?, ?> response) {
+        entry.status = ((Number) response.get("status")).intValue();
+        entry.statusText = String.valueOf(response.get("statusText"));
+        entry.mimeType = String.valueOf(response.get("mimeType"));
+        entry.headers.clear();
+        Object headers = response.get("headers");
+        if (headers instanceof Map) {
+            // DevTools joins repeated headers with newlines
+            ((Map<?, ?>) headers).forEach((name, value) -> {
+                for (String single : String.valueOf(value).split("\n")) {
+                    entry.headers.add(Map.of("name", String.valueOf(name), "value", single));
+                }
+            });
+        }
+    }
+
+    private static Event<Map<?, ?>> event(String name) {
+        return new Event<>(name, input -> input.read(Map.class));
+    }
+
+    private static String requestId(Map<?, ?> params) {
+        return String.valueOf(params.get("requestId"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.launchable.demo.pages;
+
+import com.launchable.demo.base.BulkQuery;
+import com.launchable.demo.base.Waits;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Base of the page objects: declares a page's elements as cached {@link Element} handles
+ * and gives access to the session's driver and waits for everything else.
+ */
+public abstract class Page {
+    private final ElementCache cache;
+
+    protected Page(ElementCache cache) {
+        this.cache = cache;
+    }
+
+    protected Element present(By locator) {
+        return new Element(cache, getClass().getSimpleName(), locator, Element.State.PRESENT);
+    }
+
+    protected Element visible(By locator) {
+        return new Element(cache, getClass().getSimpleName(), locator, Element.State.VISIBLE);
+    }
+
+    protected Element clickable(By locator) {
+        return new Element(cache, getClass().getSimpleName(), locator, Element.State.CLICKABLE);
+    }
+
+    /**
+     * Marks the page as left after an action that loads another one, e.g. following a link.
+     */
+    protected void left() {
+        cache.invalidate();
+    }
+
+    protected ElementCache cache() {
+        return cache;
+    }
+
+    protected WebDriver driver() {
+        return cache.getDriver();
+    }
+
+    protected Waits waits() {
+        return cache.getWaits();
+    }
+
+    protected BulkQuery bulk() {
+        return new BulkQuery(driver());
+    }
+}
@@ -0,0 +1,66 @@
+package com.launchable.demo.metrics;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Hands every navigation of one browser session to {@link PageLoadMetrics}, along with how
+ * long the navigation command itself blocked the test and the browser's performance
+ * counters from just before it.
+ */
+public class PageLoadListener implements WebDriverListener {
+    private final WebDriver session;
+    private long navigationStart;
+    private Map<String, Double> counters = Collections.emptyMap();
+
+    /**
+     * @param session the undecorated driver, used to sample the page without the samples
+     *                themselves being reported as test commands
+     */
+    public PageLoadListener(WebDriver session) {
+        this.session = session;
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        start();
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url) {
+        capture(url);
+    }
+
+    @Override
+    public void beforeTo(WebDriver.Navigation navigation, String url) {
+        start();
+    }
+
+    @Override
+    public void afterTo(WebDriver.Navigation navigation, String url) {
+        capture(url);
+    }
+
+    @Override
+    public void beforeTo(WebDriver.Navigation navigation, URL url) {
+        start();
+    }
+
+    @Override
+    public void afterTo(WebDriver.Navigation navigation, URL url) {
+        capture(url.toString());
+    }
+
+    private void start() {
+        counters = PageLoadMetrics.getInstance().counters(session);
+        navigationStart = System.nanoTime();
+    }
+
+    private void capture(String url) {
+        PageLoadMetrics.getInstance().capture(session, url, System.nanoTime() - navigationStart, counters);
+    }
+}
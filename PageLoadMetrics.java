@@ -0,0 +1,266 @@
+package com.launchable.demo.metrics;
+
+import com.launchable.demo.base.LocalStore;
+import com.launchable.demo.base.TestContext;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Captures front-end performance for every navigation a test makes and checks it against
+ * {@link PerformanceBudgets}.
+ *
+ * <p>Each sample combines how long the navigation command blocked the test
+ * ({@code navigationMs}), the Navigation Timing entry ({@code ttfb}, {@code domInteractive},
+ * {@code domContentLoaded}, {@code loadEventEnd}, {@code duration}, all in ms), resource
+ * counts ({@code resourceCount}, {@code transferSize} in bytes) and, for Chromium sessions,
+ * the CDP {@code Performance.getMetrics} values such as {@code JSHeapUsedSize},
+ * {@code LayoutCount} and {@code ScriptDuration} (durations converted to ms). Gauges such
+ * as the heap size are taken as they are after the navigation; counters such as
+ * {@code LayoutCount} grow for as long as the browser lives, so they are recorded as the
+ * difference from a {@link #counters snapshot} taken before it, and a pooled browser's
+ * earlier tests do not count against the next one.
+ *
+ * <p>Budget violations are kept per thread until the test finishes, when
+ * {@link com.launchable.demo.listeners.PerformanceBudgetListener} turns them into a failure.
+ *
+ * <p>Per-URL means are kept in the {@link LocalStore} under the name of the browser profile
+ * that produced them, so a run under one profile can be compared with the last run under
+ * another.
+ */
+public final class PageLoadMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(PageLoadMetrics.class);
+    private static final PageLoadMetrics INSTANCE = new PageLoadMetrics(PerformanceBudgets.load());
+
+    private static final String NAVIGATION_SCRIPT = String.join("\n",
+        "var nav = performance.getEntriesByType('navigation')[0];",
+        "if (!nav) { return null; }",
+        "var resources = performance.getEntriesByType('resource'), bytes = 0;",
+        "resources.forEach(function (r) { bytes += r.transferSize || 0; });",
+        "return {",
+        "  ttfb: nav.responseStart - nav.requestStart,",
+        "  domInteractive: nav.domInteractive,",
+        "  domContentLoaded: nav.domContentLoadedEventEnd,",
+        "  loadEventEnd: nav.loadEventEnd,",
+        "  duration: nav.duration,",
+        "  transferSize: (nav.transferSize || 0) + bytes,",
+        "  resourceCount: resources.length",
+        "};");
+    private static final Set<String> CDP_GAUGES = Set.of("JSHeapUsedSize", "JSHeapTotalSize", "Nodes", "Documents");
+    // Cumulative over the life of the browser target
+    private static final Set<String> CDP_COUNTERS = Set.of(
+        "LayoutCount", "RecalcStyleCount", "LayoutDuration", "RecalcStyleDuration", "ScriptDuration", "TaskDuration");
+    // What a lighter profile is expected to move; the rest is reported but not compared
+    private static final List<String> COMPARED_METRICS = List.of(
+        "navigationMs", "domContentLoaded", "transferSize", "resourceCount", "JSHeapUsedSize");
+
+    private final PerformanceBudgets budgets;
+    private final Map<String, Map<String, DoubleSummaryStatistics>> byUrl = new TreeMap<>();
+    private final Set<WebDriver> performanceDomainEnabled = Collections.newSetFromMap(new WeakHashMap<>());
+    private final ThreadLocal<List<String>> violations = ThreadLocal.withInitial(ArrayList::new);
+
+    private PageLoadMetrics(PerformanceBudgets budgets) {
+        this.budgets = budgets;
+    }
+
+    public static PageLoadMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The cumulative CDP counters of {@code driver} right now, to be passed to
+     * {@link #capture} after the navigation; empty when the browser has none.
+     */
+    public Map<String, Double> counters(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Double> counters = cdpMetrics((HasCdp) driver);
+            counters.keySet().retainAll(CDP_COUNTERS);
+            return counters;
+        } catch (WebDriverException e) {
+            LOG.debug("Could not read performance counters: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Samples the page {@code driver} just navigated to. {@code driver} must be the
+     * undecorated session so the sampling itself is not counted as test commands.
+     *
+     * @param navigationNanos how long the navigation command took
+     * @param before          the {@link #counters} taken before the navigation; counters
+     *                        missing from it are left out of the sample
+     */
+    public void capture(WebDriver driver, String requestedUrl, long navigationNanos, Map<String, Double> before) {
+        if (requestedUrl == null || !requestedUrl.startsWith("http")) {
+            return;
+        }
+        Map<String, Double> sample = new LinkedHashMap<>();
+        sample.put("navigationMs", navigationNanos / 1_000_000.0);
+        try {
+            Object navigation = ((JavascriptExecutor) driver).executeScript(NAVIGATION_SCRIPT);
+            if (navigation instanceof Map) {
+                ((Map<?, ?>) navigation).forEach((name, value) -> putNumber(sample, String.valueOf(name), value));
+            }
+            if (driver instanceof HasCdp) {
+                cdpMetrics((HasCdp) driver).forEach((name, value) -> {
+                    if (CDP_GAUGES.contains(name)) {
+                        sample.put(name, value);
+                    } else if (before.containsKey(name)) {
+                        sample.put(name, Math.max(0, value - before.get(name)));
+                    }
+                });
+            }
+        } catch (WebDriverException e) {
+            LOG.debug("Could not sample page load of {}: {}", requestedUrl, e.getMessage());
+            return;
+        }
+        String url = stripQuery(requestedUrl);
+        record(url, sample);
+        TestContext context = TestContext.current();
+        List<String> broken = budgets.violations(url, context.getGroups(), sample);
+        if (!broken.isEmpty()) {
+            LOG.warn("{} broke performance budgets: {}", context.getTestName(), broken);
+            violations.get().addAll(broken);
+        }
+    }
+
+    /**
+     * Returns and forgets the budget violations recorded on this thread.
+     */
+    public List<String> drainViolations() {
+        List<String> drained = new ArrayList<>(violations.get());
+        violations.get().clear();
+        return drained;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> report = new TreeMap<>();
+        byUrl.forEach((url, metrics) -> {
+            Map<String, Object> perMetric = new TreeMap<>();
+            metrics.forEach((metric, stats) -> {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("count", stats.getCount());
+                summary.put("mean", round(stats.getAverage()));
+                summary.put("min", round(stats.getMin()));
+                summary.put("max", round(stats.getMax()));
+                perMetric.put(metric, summary);
+            });
+            report.put(url, perMetric);
+        });
+        return report;
+    }
+
+    /**
+     * Stores this run's per-URL means as the baseline for {@code profile}, replacing the
+     * previous one. A run that sampled nothing leaves the old baseline alone.
+     */
+    public synchronized void saveBaseline(String profile) {
+        if (byUrl.isEmpty()) {
+            return;
+        }
+        Properties baseline = new Properties();
+        byUrl.forEach((url, metrics) -> COMPARED_METRICS.forEach(metric -> {
+            DoubleSummaryStatistics stats = metrics.get(metric);
+            if (stats != null) {
+                baseline.setProperty(url + "|" + metric, String.valueOf(round(stats.getAverage())));
+            }
+        }));
+        LocalStore.save(baselineName(profile), baseline, "Mean page-load metrics per URL, profile " + profile);
+    }
+
+    /**
+     * Compares this run's per-URL means with the stored baseline of {@code profile}. For
+     * every URL and metric both have, reports both means and what this run saved per
+     * navigation (negative when it got worse). Empty when there is no baseline.
+     */
+    public synchronized Map<String, Object> compareWith(String profile) {
+        Properties baseline = LocalStore.load(baselineName(profile));
+        Map<String, Object> report = new TreeMap<>();
+        byUrl.forEach((url, metrics) -> {
+            Map<String, Object> perMetric = new TreeMap<>();
+            for (String metric : COMPARED_METRICS) {
+                String before = baseline.getProperty(url + "|" + metric);
+                DoubleSummaryStatistics stats = metrics.get(metric);
+                if (before == null || stats == null) {
+                    continue;
+                }
+                double baselineMean = Double.parseDouble(before);
+                double saved = baselineMean - stats.getAverage();
+                Map<String, Object> delta = new LinkedHashMap<>();
+                delta.put("baseline", baselineMean);
+                delta.put("current", round(stats.getAverage()));
+                delta.put("saved", round(saved));
+                delta.put("savedPercent", baselineMean == 0 ? 0.0 : round(100 * saved / baselineMean));
+                perMetric.put(metric, delta);
+            }
+            if (!perMetric.isEmpty()) {
+                report.put(url, perMetric);
+            }
+        });
+        return report;
+    }
+
+    private static String baselineName(String profile) {
+        return "page-load-" + profile + ".properties";
+    }
+
+    private synchronized void record(String url, Map<String, Double> sample) {
+        Map<String, DoubleSummaryStatistics> metrics = byUrl.computeIfAbsent(url, k -> new TreeMap<>());
+        sample.forEach((metric, value) -> metrics.computeIfAbsent(metric, k -> new DoubleSummaryStatistics()).accept(value));
+    }
+
+    private Map<String, Double> cdpMetrics(HasCdp cdp) {
+        boolean enable;
+        synchronized (performanceDomainEnabled) {
+            enable = performanceDomainEnabled.add((WebDriver) cdp);
+        }
+        if (enable) {
+            cdp.executeCdpCommand("Performance.enable", Map.of());
+        }
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Object raw = cdp.executeCdpCommand("Performance.getMetrics", Map.of()).get("metrics");
+        if (raw instanceof List) {
+            for (Object item : (List<?>) raw) {
+                Map<?, ?> metric = (Map<?, ?>) item;
+                String name = String.valueOf(metric.get("name"));
+                if ((CDP_GAUGES.contains(name) || CDP_COUNTERS.contains(name)) && metric.get("value") instanceof Number) {
+                    double value = ((Number) metric.get("value")).doubleValue();
+                    metrics.put(name, name.endsWith("Duration") ? value * 1000 : value);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static void putNumber(Map<String, Double> sample, String name, Object value) {
+        if (value instanceof Number) {
+            sample.put(name, ((Number) value).doubleValue());
+        }
+    }
+
+    private static String stripQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
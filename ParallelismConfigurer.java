@@ -0,0 +1,48 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.ConcurrencyController;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Lets the command line override the parallel mode and thread count declared in testng.xml.
+ *
+ * <ul>
+ *   <li>{@code -Dtest.parallel=methods|classes|tests|instances|none}</li>
+ *   <li>{@code -Dtest.threads=<n>} or {@code -Dtest.threads=auto} for one thread per core</li>
+ *   <li>{@code -Dtest.threads=adaptive} for as many browsers at once as the host can take,
+ *       decided during the run by the {@link ConcurrencyController}</li>
+ * </ul>
+ */
+public class ParallelismConfigurer implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String parallel = System.getProperty("test.parallel");
+        String threads = System.getProperty("test.threads");
+        for (XmlSuite suite : suites) {
+            if (parallel != null && !parallel.isBlank()) {
+                suite.setParallel(XmlSuite.ParallelMode.getValidParallel(parallel));
+            }
+            if (threads != null && !threads.isBlank()) {
+                suite.setThreadCount(resolveThreadCount(threads));
+            }
+        }
+    }
+
+    static int resolveThreadCount(String threads) {
+        if ("auto".equalsIgnoreCase(threads.trim())) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        if ("adaptive".equalsIgnoreCase(threads.trim())) {
+            return ConcurrencyController.getInstance().getMax();
+        }
+        try {
+            return Math.max(1, Integer.parseInt(threads.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("test.threads must be a number, 'auto' or 'adaptive': " + threads, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.metrics.PageLoadMetrics;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import java.util.List;
+
+/**
+ * Fails a test whose navigations broke a performance budget, after the test body has run,
+ * so functional failures still take precedence in the report.
+ */
+public class PerformanceBudgetListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        List<String> violations = PageLoadMetrics.getInstance().drainViolations();
+        if (!violations.isEmpty() && testResult.isSuccess()) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Performance budget exceeded:\n  " + String.join("\n  ", violations)));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.launchable.demo.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Page-load budgets read from a properties file ({@code -Dperf.budgets}, default
+ * {@code perf-budgets.properties} in the working directory). Each line caps one metric for
+ * a scope:
+ *
+ * <pre>
+ * all.JSHeapUsedSize=60000000
+ * group.smoke.loadEventEnd=4000
+ * url.saucedemo.com/inventory.html.domContentLoaded=2500
+ * </pre>
+ *
+ * <p>{@code url.} scopes match any navigation whose URL contains the text between the first
+ * and last dot; {@code group.} scopes match navigations made by tests in that TestNG group.
+ * Metric names are those recorded by {@link PageLoadMetrics}. Without the file there are
+ * no budgets; a line that cannot be parsed is logged and skipped.
+ */
+public final class PerformanceBudgets {
+    private static final Logger LOG = LoggerFactory.getLogger(PerformanceBudgets.class);
+
+    private final List<Budget> budgets;
+
+    PerformanceBudgets(List<Budget> budgets) {
+        this.budgets = budgets;
+    }
+
+    static PerformanceBudgets load() {
+        Path file = Paths.get(System.getProperty("perf.budgets", "perf-budgets.properties"));
+        if (!Files.isRegularFile(file)) {
+            return new PerformanceBudgets(Collections.emptyList());
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            LOG.warn("Could not read performance budgets from {}: {}", file, e.getMessage());
+            return new PerformanceBudgets(Collections.emptyList());
+        }
+        List<Budget> budgets = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                budgets.add(Budget.parse(key, properties.getProperty(key)));
+            } catch (IllegalArgumentException e) {
+                // One bad line must not take the whole run down with it
+                LOG.warn("Ignoring performance budget {} in {}: {}", key, file, e.getMessage());
+            }
+        }
+        LOG.info("Loaded {} performance budgets from {}", budgets.size(), file);
+        return new PerformanceBudgets(budgets);
+    }
+
+    /**
+     * Returns a description of every budget the sample breaks.
+     */
+    List<String> violations(String url, Collection<String> groups, Map<String, Double> sample) {
+        List<String> violations = new ArrayList<>();
+        for (Budget budget : budgets) {
+            Double value = sample.get(budget.metric);
+            if (value != null && budget.appliesTo(url, groups) && value > budget.max) {
+                violations.add(String.format("%s %s=%.0f exceeds budget %.0f (%s)",
+                    url, budget.metric, value, budget.max, budget.key));
+            }
+        }
+        return violations;
+    }
+
+    static final class Budget {
+        private final String key;
+        private final String scope;
+        private final String pattern;
+        private final String metric;
+        private final double max;
+
+        private Budget(String key, String scope, String pattern, String metric, double max) {
+            this.key = key;
+            this.scope = scope;
+            this.pattern = pattern;
+            this.metric = metric;
+            this.max = max;
+        }
+
+        static Budget parse(String key, String value) {
+            int firstDot = key.indexOf('.');
+            int lastDot = key.lastIndexOf('.');
+            if (firstDot < 0) {
+                throw new IllegalArgumentException("Performance budget needs <scope>.<metric>: " + key);
+            }
+            String scope = key.substring(0, firstDot);
+            String pattern = firstDot < lastDot ? key.substring(firstDot + 1, lastDot) : "";
+            String metric = key.substring(lastDot + 1);
+            if (!scope.equals("all") && !scope.equals("url") && !scope.equals("group")) {
+                throw new IllegalArgumentException("Performance budget scope must be all, url or group: " + key);
+            }
+            return new Budget(key, scope, pattern, metric, Double.parseDouble(value.trim()));
+        }
+
+        boolean appliesTo(String url, Collection<String> groups) {
+            switch (scope) {
+                case "url":
+                    return url.contains(pattern);
+                case "group":
+                    return groups.contains(pattern);
+                default:
+                    return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.launchable.demo.base;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Memory figures from {@code /proc}. Everything reads as -1 where {@code /proc} does not
+ * exist or the process has already gone.
+ */
+final class ProcessMemory {
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * Resident set size of {@code process} in bytes.
+     */
+    static long rss(ProcessHandle process) {
+        long kb = kilobytes(Paths.get("/proc", Long.toString(process.pid()), "status"), "VmRSS:");
+        return kb < 0 ? -1 : kb << 10;
+    }
+
+    /**
+     * {@code MemAvailable} in bytes, which unlike free memory counts reclaimable page cache.
+     */
+    static long available() {
+        long kb = kilobytes(MEMINFO, "MemAvailable:");
+        return kb < 0 ? -1 : kb << 10;
+    }
+
+    private static long kilobytes(Path file, String key) {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.substring(key.length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or the process has just exited
+        }
+        return -1;
+    }
+}
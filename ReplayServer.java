@@ -0,0 +1,200 @@
+package com.launchable.demo.network;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Serves one recorded host from a {@link NetworkArchive} on a loopback port.
+ *
+ * <p>Binary bodies are memory-mapped once and written from the mapping, so large static
+ * assets never pass through the Java heap. Text bodies go through the {@code rewriter},
+ * which points absolute links to other recorded hosts at their replay servers; the
+ * rewritten bytes are cached.
+ */
+final class ReplayServer {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayServer.class);
+    private static final int MAX_MISSES_KEPT = 25;
+    // Per-connection, or meaningless once the origin is plain http on loopback
+    private static final Set<String> DROPPED_HEADERS = Set.of(
+        "content-length", "content-encoding", "transfer-encoding", "connection", "keep-alive",
+        "strict-transport-security", "alt-svc", "content-security-policy",
+        "content-security-policy-report-only", "report-to", "nel");
+    private static final Pattern COOKIE_ATTRIBUTES = Pattern.compile("(?i);\\s*(secure|domain=[^;]*|samesite=none)(?=;|$)");
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final String host;
+    private final NetworkArchive archive;
+    private final UnaryOperator<String> rewriter;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Path, MappedByteBuffer> mapped = new ConcurrentHashMap<>();
+    private final Map<Path, byte[]> rewritten = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final Set<String> missed = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    ReplayServer(String host, NetworkArchive archive, UnaryOperator<String> rewriter) {
+        this.host = host;
+        this.archive = archive;
+        this.rewriter = rewriter;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start replay server for " + host, e);
+        }
+        // Browsers open several connections per origin
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "replay-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String origin() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    Map<String, Object> stats() {
+        long served = hits.get();
+        long total = served + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("origin", origin());
+        stats.put("entries", archive.size(host));
+        stats.put("hits", served);
+        stats.put("misses", misses.get());
+        stats.put("hitRate", total == 0 ? 1.0 : Math.round(1000.0 * served / total) / 1000.0);
+        stats.put("bytesServed", bytesServed.get());
+        synchronized (missed) {
+            stats.put("missed", new LinkedHashSet<>(missed));
+        }
+        return stats;
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String pathAndQuery = path + (query == null ? "" : "?" + query);
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            String postData = requestBody.length == 0 ? null : new String(requestBody, StandardCharsets.UTF_8);
+
+            Set<String> cookies = NetworkArchive.cookies(exchange.getRequestHeaders().getFirst("Cookie"));
+            NetworkArchive.Entry entry = archive.find(host, NetworkArchive.key(method, pathAndQuery, postData), cookies);
+            if (entry == null && query != null) {
+                // Cache busters and tracking parameters rarely change the response
+                entry = archive.find(host, NetworkArchive.key(method, path, postData), cookies);
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                if (missed.size() < MAX_MISSES_KEPT) {
+                    missed.add(method + " " + pathAndQuery);
+                }
+                LOG.debug("Replay miss on {}: {} {}", host, method, pathAndQuery);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            hits.incrementAndGet();
+            copyHeaders(entry, exchange.getResponseHeaders());
+            if (entry.bodyFile == null || method.equals("HEAD")) {
+                exchange.sendResponseHeaders(entry.status, -1);
+                return;
+            }
+            Path file = archive.body(host, entry);
+            if (entry.isText()) {
+                byte[] body = rewritten.computeIfAbsent(file, this::rewrite);
+                exchange.sendResponseHeaders(entry.status, body.length);
+                exchange.getResponseBody().write(body);
+                bytesServed.addAndGet(body.length);
+            } else {
+                ByteBuffer body = mapped.computeIfAbsent(file, ReplayServer::map).duplicate();
+                exchange.sendResponseHeaders(entry.status, body.remaining());
+                WritableByteChannel channel = Channels.newChannel(exchange.getResponseBody());
+                while (body.hasRemaining()) {
+                    bytesServed.addAndGet(channel.write(body));
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void copyHeaders(NetworkArchive.Entry entry, Headers headers) {
+        for (Map<String, String> header : entry.headers) {
+            String name = header.get("name");
+            String lower = name.toLowerCase();
+            if (DROPPED_HEADERS.contains(lower)) {
+                continue;
+            }
+            String value = header.get("value");
+            if (lower.equals("location")) {
+                value = rewriter.apply(value);
+            } else if (lower.equals("set-cookie")) {
+                value = COOKIE_ATTRIBUTES.matcher(value).replaceAll("");
+            }
+            headers.add(name, value);
+        }
+    }
+
+    private byte[] rewrite(Path file) {
+        try {
+            return rewriter.apply(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.launchable.demo.listeners;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends one JSON line per test event to {@code test-events.jsonl} as the run goes, and
+ * keeps {@code test-summary.json} up to date from the same events, next to the surefire
+ * reports (or under {@code -Devents.dir}).
+ *
+ * <p>Events are {@code suite-start}, {@code start}, {@code retry}, {@code finish} and
+ * {@code suite-finish}; test events carry the test, its {@code <test>} block, groups and
+ * browser, and on finish the status, duration and retries so far. Each line is flushed
+ * when written, so the file can be tailed. The summary is rewritten at most once per
+ * {@code events.summary.interval.ms} (default 1000) and when the suite finishes.
+ */
+public class ResultEventStream implements ISuiteListener, ITestListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ResultEventStream.class);
+    private static final Json JSON = new Json();
+
+    private final long summaryInterval = Long.getLong("events.summary.interval.ms", 1_000);
+    private final ResultSummary summary = new ResultSummary();
+    private final Map<String, Integer> retries = new LinkedHashMap<>();
+    private Path dir;
+    private Writer events;
+    private long summaryWritten;
+
+    @Override
+    public synchronized void onStart(ISuite suite) {
+        if (events == null) {
+            String configured = System.getProperty("events.dir");
+            // TestNG gives each suite a subdirectory of the report directory
+            dir = configured != null ? Paths.get(configured) : Paths.get(suite.getOutputDirectory()).getParent();
+            try {
+                Files.createDirectories(dir);
+                events = Files.newBufferedWriter(dir.resolve("test-events.jsonl"), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                LOG.warn("Could not open test-events.jsonl in {}: {}", dir, e.getMessage());
+            }
+        }
+        Map<String, Object> event = event("suite-start");
+        event.put("suite", suite.getName());
+        write(event);
+    }
+
+    @Override
+    public synchronized void onFinish(ISuite suite) {
+        summary.suiteFinished();
+        Map<String, Object> event = event("suite-finish");
+        event.put("suite", suite.getName());
+        event.put("summary", summary.toMap());
+        write(event);
+        writeSummary();
+    }
+
+    @Override
+    public synchronized void onTestStart(ITestResult result) {
+        summary.started();
+        write(testEvent("start", result));
+    }
+
+    @Override
+    public synchronized void onTestSuccess(ITestResult result) {
+        finish(result, "PASS");
+    }
+
+    @Override
+    public synchronized void onTestFailure(ITestResult result) {
+        finish(result, "FAIL");
+    }
+
+    @Override
+    public synchronized void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        finish(result, "PASS");
+    }
+
+    @Override
+    public synchronized void onTestSkipped(ITestResult result) {
+        if (result.wasRetried()) {
+            retries.merge(key(result), 1, Integer::sum);
+            summary.retried();
+            Map<String, Object> event = testEvent("retry", result);
+            event.put("retries", retries.get(key(result)));
+            event.put("error", error(result));
+            write(event);
+            return;
+        }
+        finish(result, "SKIP");
+    }
+
+    private void finish(ITestResult result, String status) {
+        long duration = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        Map<String, Object> event = testEvent("finish", result);
+        event.put("status", status);
+        event.put("durationMs", duration);
+        event.put("retries", retries.getOrDefault(key(result), 0));
+        if (!status.equals("PASS") && result.getThrowable() != null) {
+            event.put("error", error(result));
+        }
+        write(event);
+        summary.finished(status, duration, result.getTestContext().getName(), browser(result),
+            result.getMethod().getGroups());
+        if (System.currentTimeMillis() - summaryWritten >= summaryInterval) {
+            writeSummary();
+        }
+    }
+
+    private static Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("event", type);
+        event.put("time", System.currentTimeMillis());
+        return event;
+    }
+
+    private static Map<String, Object> testEvent(String type, ITestResult result) {
+        Map<String, Object> event = event(type);
+        event.put("test", LongestFirstScheduler.name(result.getMethod()));
+        event.put("block", result.getTestContext().getName());
+        event.put("groups", result.getMethod().getGroups());
+        event.put("browser", browser(result));
+        event.put("thread", Thread.currentThread().getName());
+        return event;
+    }
+
+    private static String key(ITestResult result) {
+        return result.getTestContext().getName() + "/" + LongestFirstScheduler.name(result.getMethod());
+    }
+
+    private static String browser(ITestResult result) {
+        String browser = result.getTestContext().getCurrentXmlTest().getParameter("browser");
+        return browser != null ? browser : "unknown";
+    }
+
+    private static String error(ITestResult result) {
+        Throwable throwable = result.getThrowable();
+        if (throwable == null) {
+            return null;
+        }
+        String message = String.valueOf(throwable.getMessage());
+        int newline = message.indexOf('\n');
+        return throwable.getClass().getSimpleName() + ": " + (newline < 0 ? message : message.substring(0, newline));
+    }
+
+    private void write(Map<String, Object> event) {
+        if (events == null) {
+            return;
+        }
+        try {
+            events.write(line(event));
+            events.write('\n');
+            events.flush();
+        } catch (IOException e) {
+            LOG.warn("Could not append to test-events.jsonl: {}", e.getMessage());
+            events = null;
+        }
+    }
+
+    private void writeSummary() {
+        summaryWritten = System.currentTimeMillis();
+        if (dir == null) {
+            return;
+        }
+        Path file = dir.resolve("test-summary.json");
+        Path temp = dir.resolve("test-summary.json.tmp");
+        try {
+            Files.write(temp, JSON.toJson(summary.toMap()).getBytes(StandardCharsets.UTF_8));
+            // Readers polling the summary never see a half-written file
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String line(Map<String, Object> event) {
+        StringBuilder line = new StringBuilder();
+        try (JsonOutput out = JSON.newOutput(line)) {
+            out.setPrettyPrint(false);
+            out.write(event);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.launchable.demo.listeners;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals of a run's results, updated one event at a time so a summary is available
+ * at any point without going back over earlier results.
+ */
+final class ResultSummary {
+    private final long startMillis = System.currentTimeMillis();
+    private final Map<String, Counts> byGroup = new TreeMap<>();
+    private final Map<String, Counts> byBlock = new TreeMap<>();
+    private final Map<String, Counts> byBrowser = new TreeMap<>();
+    private final Counts total = new Counts();
+    private int running;
+    private int retries;
+    private boolean finished;
+
+    synchronized void started() {
+        running++;
+    }
+
+    synchronized void retried() {
+        running--;
+        retries++;
+    }
+
+    synchronized void finished(String status, long durationMillis, String block, String browser, String[] groups) {
+        running--;
+        total.add(status, durationMillis);
+        byBlock.computeIfAbsent(block, k -> new Counts()).add(status, durationMillis);
+        byBrowser.computeIfAbsent(browser, k -> new Counts()).add(status, durationMillis);
+        for (String group : groups) {
+            byGroup.computeIfAbsent(group, k -> new Counts()).add(status, durationMillis);
+        }
+    }
+
+    synchronized void suiteFinished() {
+        finished = true;
+    }
+
+    synchronized Map<String, Object> toMap() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("finished", finished);
+        summary.put("elapsedMs", System.currentTimeMillis() - startMillis);
+        summary.put("running", Math.max(0, running));
+        summary.putAll(total.toMap());
+        summary.put("retries", retries);
+        summary.put("groups", toMaps(byGroup));
+        summary.put("blocks", toMaps(byBlock));
+        summary.put("browsers", toMaps(byBrowser));
+        return summary;
+    }
+
+    private static Map<String, Object> toMaps(Map<String, Counts> counts) {
+        Map<String, Object> maps = new LinkedHashMap<>();
+        counts.forEach((name, c) -> maps.put(name, c.toMap()));
+        return maps;
+    }
+
+    private static final class Counts {
+        private int passed;
+        private int failed;
+        private int skipped;
+        private long durationMillis;
+
+        private void add(String status, long millis) {
+            switch (status) {
+                case "PASS":
+                    passed++;
+                    break;
+                case "FAIL":
+                    failed++;
+                    break;
+                default:
+                    skipped++;
+            }
+            durationMillis += millis;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("total", passed + failed + skipped);
+            map.put("passed", passed);
+            map.put("failed", failed);
+            map.put("skipped", skipped);
+            map.put("durationMs", durationMillis);
+            return map;
+        }
+    }
+}
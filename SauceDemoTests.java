@@ -1,145 +1,116 @@
 package com.launchable.demo.tests;
 
 import com.launchable.demo.base.BaseTest;
+import com.launchable.demo.base.SessionCache;
+import com.launchable.demo.pages.CartPage;
+import com.launchable.demo.pages.CheckoutPage;
+import com.launchable.demo.pages.InventoryPage;
+import com.launchable.demo.pages.SauceLoginPage;
 import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import java.time.Duration;
 import java.util.List;
 
 public class SauceDemoTests extends BaseTest {
-    private static final String SAUCE_DEMO_URL = "https://www.saucedemo.com/";
     private static final String VALID_USERNAME = "standard_user";
     private static final String VALID_PASSWORD = "secret_sauce";
-    private WebDriverWait wait;
+    private static final By LOGIN_ERROR = By.cssSelector("[data-test='error']");
     
     @BeforeMethod
     public void navigateToSauceDemo() {
-        driver.get(SAUCE_DEMO_URL);
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        loginPage().open();
     }
     
     @Test(priority = 1, groups = {"smoke", "critical"})
     public void testValidLogin() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        loginPage().submit(VALID_USERNAME, VALID_PASSWORD);
         
-        WebElement inventoryContainer = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.className("inventory_container")));
-        Assert.assertTrue(inventoryContainer.isDisplayed());
+        Assert.assertTrue(inventoryPage().container().isDisplayed());
         
-        String currentUrl = driver.getCurrentUrl();
+        String currentUrl = driver().getCurrentUrl();
         Assert.assertTrue(currentUrl.contains("inventory.html"));
     }
     
     @Test(priority = 2, groups = {"smoke", "security"})
     public void testInvalidLogin() {
-        performLogin("invalid_user", "invalid_password");
+        SauceLoginPage loginPage = loginPage();
+        loginPage.submit("invalid_user", "invalid_password");
         
-        WebElement errorMessage = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.cssSelector("[data-test='error']")));
-        Assert.assertTrue(errorMessage.isDisplayed());
-        Assert.assertTrue(errorMessage.getText().contains("Username and password do not match"));
+        Assert.assertTrue(loginPage.error().isDisplayed());
+        Assert.assertTrue(loginPage.error().getText().contains("Username and password do not match"));
     }
     
     @Test(priority = 3, groups = {"functional", "critical"})
     public void testAddProductToCart() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Add first product to cart
-        WebElement addToCartButton = wait.until(ExpectedConditions.elementToBeClickable(
-            By.cssSelector("[data-test='add-to-cart-sauce-labs-backpack']")));
-        addToCartButton.click();
+        inventory.addToCartButton("sauce-labs-backpack").click();
         
         // Verify cart badge
-        WebElement cartBadge = driver.findElement(By.className("shopping_cart_badge"));
-        Assert.assertEquals(cartBadge.getText(), "1");
+        Assert.assertEquals(inventory.cartBadge().getText(), "1");
         
         // Verify button text changed
-        WebElement removeButton = driver.findElement(By.cssSelector("[data-test='remove-sauce-labs-backpack']"));
-        Assert.assertTrue(removeButton.isDisplayed());
+        Assert.assertTrue(inventory.removeButton("sauce-labs-backpack").isDisplayed());
     }
     
     @Test(priority = 4, groups = {"functional"})
     public void testAddMultipleProductsToCart() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Add multiple products
-        List<WebElement> addButtons = driver.findElements(By.cssSelector("[data-test^='add-to-cart']"));
-        for (int i = 0; i < Math.min(3, addButtons.size()); i++) {
-            addButtons.get(i).click();
-        }
+        inventory.addFirstProducts(3);
         
-        WebElement cartBadge = driver.findElement(By.className("shopping_cart_badge"));
-        Assert.assertEquals(cartBadge.getText(), "3");
+        Assert.assertEquals(inventory.cartBadge().getText(), "3");
     }
     
     @Test(priority = 5, groups = {"functional"})
     public void testViewCartContents() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Add product to cart
-        driver.findElement(By.cssSelector("[data-test='add-to-cart-sauce-labs-backpack']")).click();
+        inventory.addToCartButton("sauce-labs-backpack").click();
         
         // Go to cart
-        driver.findElement(By.className("shopping_cart_link")).click();
+        CartPage cart = inventory.openCart();
         
         // Verify cart page
-        WebElement cartItem = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.className("cart_item")));
-        Assert.assertTrue(cartItem.isDisplayed());
-        
-        WebElement itemName = driver.findElement(By.className("inventory_item_name"));
-        Assert.assertEquals(itemName.getText(), "Sauce Labs Backpack");
+        Assert.assertTrue(cart.firstItem().isDisplayed());
+        Assert.assertEquals(cart.firstItemName().getText(), "Sauce Labs Backpack");
     }
     
     @Test(priority = 6, groups = {"functional", "critical"})
     public void testCompleteCheckoutProcess() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Add product and go to cart
-        driver.findElement(By.cssSelector("[data-test='add-to-cart-sauce-labs-backpack']")).click();
-        driver.findElement(By.className("shopping_cart_link")).click();
-        
-        // Proceed to checkout
-        driver.findElement(By.cssSelector("[data-test='checkout']")).click();
-        
-        // Fill checkout form
-        driver.findElement(By.cssSelector("[data-test='firstName']")).sendKeys("John");
-        driver.findElement(By.cssSelector("[data-test='lastName']")).sendKeys("Doe");
-        driver.findElement(By.cssSelector("[data-test='postalCode']")).sendKeys("12345");
-        driver.findElement(By.cssSelector("[data-test='continue']")).click();
+        inventory.addToCartButton("sauce-labs-backpack").click();
         
-        // Complete order
-        WebElement finishButton = wait.until(ExpectedConditions.elementToBeClickable(
-            By.cssSelector("[data-test='finish']")));
-        finishButton.click();
+        // Proceed to checkout, fill checkout form and complete order
+        CheckoutPage checkout = inventory.openCart().checkout()
+            .enterInformation("John", "Doe", "12345")
+            .finish();
         
         // Verify completion
-        WebElement confirmationMessage = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.className("complete-header")));
-        Assert.assertEquals(confirmationMessage.getText(), "Thank you for your order!");
+        Assert.assertEquals(checkout.completeHeader().getText(), "Thank you for your order!");
     }
     
     @Test(priority = 7, groups = {"functional"})
     public void testProductSorting() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Test sorting by price (low to high)
-        Select sortDropdown = new Select(driver.findElement(By.className("product_sort_container")));
-        sortDropdown.selectByValue("lohi");
+        inventory.sortBy("lohi");
         
-        List<WebElement> prices = driver.findElements(By.className("inventory_item_price"));
+        List<String> prices = inventory.prices();
         Assert.assertTrue(prices.size() > 0);
         
         // Verify first price is lower than last price
-        String firstPrice = prices.get(0).getText().replace("$", "");
-        String lastPrice = prices.get(prices.size() - 1).getText().replace("$", "");
+        String firstPrice = prices.get(0).replace("$", "");
+        String lastPrice = prices.get(prices.size() - 1).replace("$", "");
         
         double firstPriceValue = Double.parseDouble(firstPrice);
         double lastPriceValue = Double.parseDouble(lastPrice);
@@ -149,40 +120,53 @@ public class SauceDemoTests extends BaseTest {
     
     @Test(priority = 8, groups = {"functional"})
     public void testRemoveProductFromCart() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
         // Add product
-        driver.findElement(By.cssSelector("[data-test='add-to-cart-sauce-labs-backpack']")).click();
+        inventory.addToCartButton("sauce-labs-backpack").click();
         
         // Remove product
-        driver.findElement(By.cssSelector("[data-test='remove-sauce-labs-backpack']")).click();
+        inventory.removeButton("sauce-labs-backpack").click();
         
         // Verify cart is empty
-        List<WebElement> cartBadge = driver.findElements(By.className("shopping_cart_badge"));
-        Assert.assertEquals(cartBadge.size(), 0, "Cart should be empty after removing item");
+        Assert.assertTrue(inventory.cartBadgeGone(), "Cart should be empty after removing item");
     }
     
     @Test(priority = 9, groups = {"functional"})
     public void testLogout() {
-        performLogin(VALID_USERNAME, VALID_PASSWORD);
+        InventoryPage inventory = login(VALID_USERNAME, VALID_PASSWORD);
         
-        // Open menu
-        driver.findElement(By.id("react-burger-menu-btn")).click();
-        
-        // Click logout
-        WebElement logoutLink = wait.until(ExpectedConditions.elementToBeClickable(
-            By.id("logout_sidebar_link")));
-        logoutLink.click();
+        // Open menu and click logout
+        SauceLoginPage loginPage = inventory.logout();
         
         // Verify return to login page
-        WebElement loginButton = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.cssSelector("[data-test='login-button']")));
-        Assert.assertTrue(loginButton.isDisplayed());
+        Assert.assertTrue(loginPage.loginButton().isDisplayed());
     }
     
-    private void performLogin(String username, String password) {
-        driver.findElement(By.cssSelector("[data-test='username']")).sendKeys(username);
-        driver.findElement(By.cssSelector("[data-test='password']")).sendKeys(password);
-        driver.findElement(By.cssSelector("[data-test='login-button']")).click();
+    private SauceLoginPage loginPage() {
+        return new SauceLoginPage(elements());
+    }
+
+    private InventoryPage inventoryPage() {
+        return new InventoryPage(elements());
+    }
+
+    /**
+     * Logs in, replaying a cached session for the user when there is one. Only
+     * {@link #testValidLogin()} and {@link #testInvalidLogin()} exercise the login form itself.
+     */
+    private InventoryPage login(String username, String password) {
+        Assert.assertTrue(SessionCache.getInstance().login(driver(), SessionCache.key(SauceLoginPage.URL, username),
+            InventoryPage.URL,
+            () -> loginPage().submit(username, password),
+            d -> isOnInventoryPage()), "Could not log in as " + username);
+        return inventoryPage();
+    }
+
+    private boolean isOnInventoryPage() {
+        waits().until("inventory or login error", ExpectedConditions.or(
+            ExpectedConditions.presenceOfElementLocated(InventoryPage.CONTAINER),
+            ExpectedConditions.presenceOfElementLocated(LOGIN_ERROR)));
+        return !driver().findElements(InventoryPage.CONTAINER).isEmpty();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * The SauceDemo login form.
+ */
+public class SauceLoginPage extends Page {
+    public static final String URL = "https://www.saucedemo.com/";
+
+    private final Element username = present(By.cssSelector("[data-test='username']"));
+    private final Element password = present(By.cssSelector("[data-test='password']"));
+    private final Element loginButton = present(By.cssSelector("[data-test='login-button']"));
+    private final Element error = present(By.cssSelector("[data-test='error']"));
+
+    public SauceLoginPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public SauceLoginPage open() {
+        driver().get(URL);
+        return this;
+    }
+
+    /**
+     * Submits the form; where that leads depends on the credentials.
+     */
+    public void submit(String user, String pass) {
+        username.sendKeys(user);
+        password.sendKeys(pass);
+        loginButton.click();
+    }
+
+    public Element loginButton() {
+        return loginButton;
+    }
+
+    public Element error() {
+        return error;
+    }
+}
@@ -0,0 +1,155 @@
+package com.launchable.demo.base;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Replays authenticated browser state instead of logging in through the UI for every test.
+ *
+ * <p>The first {@link #login} for a key runs the UI login and, if it succeeded, snapshots the
+ * cookies and {@code localStorage} of the logged-in page. Later logins for the same key inject
+ * that snapshot and open the landing page directly. A snapshot is dropped when one of its
+ * cookies expires, when replaying it does not produce a logged-in page, or through
+ * {@link #invalidate}. Failed logins are never cached, so invalid credentials always go
+ * through the UI. {@code -Dsession.cache.enabled=false} turns caching off.
+ */
+public final class SessionCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionCache.class);
+    private static final SessionCache INSTANCE =
+        new SessionCache(Boolean.parseBoolean(System.getProperty("session.cache.enabled", "true")));
+
+    private static final String READ_STORAGE_SCRIPT =
+        "var items = {};"
+            + "for (var i = 0; i < window.localStorage.length; i++) {"
+            + "  var key = window.localStorage.key(i); items[key] = window.localStorage.getItem(key);"
+            + "}"
+            + "return items;";
+    private static final String WRITE_STORAGE_SCRIPT =
+        "var items = arguments[0];"
+            + "for (var key in items) { window.localStorage.setItem(key, items[key]); }";
+
+    private final boolean enabled;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Object> loginLocks = new ConcurrentHashMap<>();
+
+    private SessionCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static SessionCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds the cache key for a user on a site; different sites never share sessions.
+     */
+    public static String key(String siteUrl, String username) {
+        return siteUrl + "#" + username;
+    }
+
+    /**
+     * Leaves {@code driver} logged in as the user behind {@code key}. The driver must already
+     * be on a page of the site, since cookies can only be set for the current domain.
+     *
+     * @param landingUrl page to open after restoring a snapshot
+     * @param uiLogin    performs the login through the UI
+     * @param loggedIn   tells whether the current page is the logged-in landing page
+     * @return whether the driver ended up logged in
+     */
+    public boolean login(WebDriver driver, String key, String landingUrl, Runnable uiLogin, Predicate<WebDriver> loggedIn) {
+        if (!enabled) {
+            uiLogin.run();
+            return loggedIn.test(driver);
+        }
+        if (restore(driver, key, landingUrl, loggedIn)) {
+            return true;
+        }
+        synchronized (loginLocks.computeIfAbsent(key, k -> new Object())) {
+            // Another thread may have logged this user in while we waited
+            if (snapshots.containsKey(key) && restore(driver, key, landingUrl, loggedIn)) {
+                return true;
+            }
+            uiLogin.run();
+            if (!loggedIn.test(driver)) {
+                return false;
+            }
+            snapshots.put(key, capture(driver));
+            LOG.info("Cached authenticated session for {}", key);
+            return true;
+        }
+    }
+
+    public void invalidate(String key) {
+        snapshots.remove(key);
+    }
+
+    public void invalidateAll() {
+        snapshots.clear();
+    }
+
+    private boolean restore(WebDriver driver, String key, String landingUrl, Predicate<WebDriver> loggedIn) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            return false;
+        }
+        if (snapshot.isExpired()) {
+            invalidate(key);
+            return false;
+        }
+        try {
+            for (Cookie cookie : snapshot.cookies) {
+                driver.manage().addCookie(cookie);
+            }
+            ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_SCRIPT, snapshot.localStorage);
+            driver.get(landingUrl);
+        } catch (WebDriverException e) {
+            LOG.warn("Could not restore cached session for {}: {}", key, e.getMessage());
+            invalidate(key);
+            return false;
+        }
+        if (loggedIn.test(driver)) {
+            return true;
+        }
+        invalidate(key);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Snapshot capture(WebDriver driver) {
+        Object storage = ((JavascriptExecutor) driver).executeScript(READ_STORAGE_SCRIPT);
+        Map<String, Object> localStorage = storage instanceof Map ? new HashMap<>((Map<String, Object>) storage) : new HashMap<>();
+        return new Snapshot(new HashSet<>(driver.manage().getCookies()), localStorage);
+    }
+
+    private static final class Snapshot {
+        private final Set<Cookie> cookies;
+        private final Map<String, Object> localStorage;
+
+        private Snapshot(Set<Cookie> cookies, Map<String, Object> localStorage) {
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+        }
+
+        private boolean isExpired() {
+            Date now = new Date();
+            for (Cookie cookie : cookies) {
+                if (cookie.getExpiry() != null && cookie.getExpiry().before(now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.launchable.demo.listeners;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Combines the surefire reports of several {@link ShardSelector} shards into one directory:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.launchable.demo.listeners.ShardReportMerger \
+ *     -Dexec.args="target/surefire-reports shards/1 shards/2 shards/3"
+ * </pre>
+ *
+ * <p>All {@code <testcase>}s end up in a single {@code TEST-<suite>.xml}, so JUnit consumers
+ * ({@code launchable record tests}, GitLab's test report) see one run. Every other file of a
+ * shard is copied under {@code shard-<n>/}, and {@code shards.json} lists each shard's
+ * counts and time; the slowest shard is the run's wall-clock time.
+ */
+public final class ShardReportMerger {
+
+    private ShardReportMerger() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: ShardReportMerger <output dir> <shard report dir>...");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Paths.get(args[i]));
+        }
+        merge(output, shards);
+    }
+
+    static void merge(Path output, List<Path> shards) throws Exception {
+        Files.createDirectories(output);
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document merged = builder.newDocument();
+        Element suite = merged.createElement("testsuite");
+        merged.appendChild(suite);
+        Counts total = new Counts();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        String suiteName = "MergedShards";
+
+        for (int n = 0; n < shards.size(); n++) {
+            Path shard = shards.get(n);
+            Counts counts = new Counts();
+            for (Path report : junitReports(shard)) {
+                Element source = builder.parse(report.toFile()).getDocumentElement();
+                if (source.hasAttribute("name")) {
+                    suiteName = source.getAttribute("name");
+                }
+                counts.time += parseTime(source.getAttribute("time"));
+                NodeList cases = source.getElementsByTagName("testcase");
+                for (int i = 0; i < cases.getLength(); i++) {
+                    Element testCase = (Element) cases.item(i);
+                    counts.add(testCase);
+                    suite.appendChild(merged.importNode(testCase, true));
+                }
+            }
+            copyRest(shard, output.resolve("shard-" + (n + 1)));
+            total.tests += counts.tests;
+            total.failures += counts.failures;
+            total.errors += counts.errors;
+            total.skipped += counts.skipped;
+            total.time = Math.max(total.time, counts.time);
+            summary.put(shard.toString(), counts.toMap());
+        }
+
+        suite.setAttribute("name", suiteName);
+        suite.setAttribute("tests", Integer.toString(total.tests));
+        suite.setAttribute("failures", Integer.toString(total.failures));
+        suite.setAttribute("errors", Integer.toString(total.errors));
+        suite.setAttribute("skipped", Integer.toString(total.skipped));
+        // Shards run side by side: the suite took as long as its slowest shard
+        suite.setAttribute("time", String.format(Locale.ROOT, "%.3f", total.time));
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(merged), new StreamResult(output.resolve("TEST-" + suiteName + ".xml").toFile()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("total", total.toMap());
+        report.put("shards", summary);
+        Files.write(output.resolve("shards.json"), new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        System.out.printf("Merged %d shards: %d tests, %d failures, %d errors, %d skipped, slowest shard %.1f s%n",
+            shards.size(), total.tests, total.failures, total.errors, total.skipped, total.time);
+    }
+
+    private static List<Path> junitReports(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().matches("TEST-.*\\.xml"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static void copyRest(Path shard, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(shard)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path relative = shard.relativize(file);
+                if (Files.isDirectory(file) || relative.toString().matches("TEST-.*\\.xml")) {
+                    continue;
+                }
+                Path copy = target.resolve(relative.toString());
+                Files.createDirectories(copy.getParent());
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static double parseTime(String time) {
+        try {
+            return time.isEmpty() ? 0 : Double.parseDouble(time.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Counts {
+        private int tests;
+        private int failures;
+        private int errors;
+        private int skipped;
+        private double time;
+
+        private void add(Element testCase) {
+            tests++;
+            for (Node child = testCase.getFirstChild(); child != null; child = child.getNextSibling()) {
+                switch (child.getNodeName()) {
+                    case "failure":
+                        failures++;
+                        break;
+                    case "error":
+                        errors++;
+                        break;
+                    case "skipped":
+                        skipped++;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("tests", tests);
+            map.put("failures", failures);
+            map.put("errors", errors);
+            map.put("skipped", skipped);
+            map.put("timeSeconds", Math.round(time * 10) / 10.0);
+            return map;
+        }
+    }
+}
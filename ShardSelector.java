@@ -0,0 +1,133 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.metrics.TestDurations;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Runs one slice of the suite, chosen with {@code -Dshard=<index>/<count>} (1-based, so
+ * {@code -Dshard=$CI_NODE_INDEX/$CI_NODE_TOTAL} in a GitLab {@code parallel} job).
+ *
+ * <p>Every shard computes the same split independently. Methods with a recorded duration
+ * are dealt longest first to the least loaded shard; methods without one go by a CRC32 of
+ * their name, which no history can move. All shards must therefore see the same
+ * {@link TestDurations} store, e.g. one CI cache restored before the jobs fan out.
+ * {@link ShardReportMerger} puts the shards' reports back together.
+ */
+public class ShardSelector implements IMethodInterceptor, IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardSelector.class);
+
+    private final int index;
+    private final int count;
+    private final Map<String, Map<String, Object>> assigned = new ConcurrentHashMap<>();
+
+    public ShardSelector() {
+        String shard = System.getProperty("shard", "").trim();
+        if (shard.isEmpty()) {
+            index = 1;
+            count = 1;
+            return;
+        }
+        String[] parts = shard.split("/");
+        try {
+            index = Integer.parseInt(parts[0].trim());
+            count = Integer.parseInt(parts[1].trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("shard must look like <index>/<count>, e.g. 2/4: " + shard, e);
+        }
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("shard index must be between 1 and " + count + ": " + shard);
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (count == 1) {
+            return methods;
+        }
+        TestDurations durations = TestDurations.getInstance();
+        List<IMethodInstance> timed = new ArrayList<>();
+        List<IMethodInstance> mine = new ArrayList<>();
+        int hashed = 0;
+        for (IMethodInstance method : methods) {
+            String name = LongestFirstScheduler.name(method.getMethod());
+            if (durations.isKnown(name)) {
+                timed.add(method);
+            } else if (hashShard(name) == index) {
+                mine.add(method);
+                hashed++;
+            }
+        }
+
+        // Name breaks ties so every JVM deals the same hand
+        timed.sort(Comparator.comparingLong((IMethodInstance m) -> durations.predict(LongestFirstScheduler.name(m.getMethod())))
+            .reversed()
+            .thenComparing(m -> LongestFirstScheduler.name(m.getMethod())));
+        long[] loads = new long[count];
+        for (IMethodInstance method : timed) {
+            int target = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (loads[shard] < loads[target]) {
+                    target = shard;
+                }
+            }
+            loads[target] += durations.predict(LongestFirstScheduler.name(method.getMethod()));
+            if (target + 1 == index) {
+                mine.add(method);
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("of", methods.size());
+        summary.put("selected", mine.size());
+        summary.put("byHash", hashed);
+        summary.put("predictedMs", loads[index - 1]);
+        assigned.put(context.getName(), summary);
+        LOG.info("Shard {}/{} runs {} of {} methods in {}", index, count, mine.size(), methods.size(), context.getName());
+        return mine;
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        if (count == 1) {
+            return;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("shard", index);
+        report.put("count", count);
+        report.put("tests", assigned);
+        Path file = Paths.get(outputDirectory, "shard.json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+
+    private int hashShard(String name) {
+        CRC32 crc = new CRC32();
+        crc.update(name.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count) + 1;
+    }
+}
@@ -0,0 +1,350 @@
+package com.launchable.demo.base;
+
+import com.launchable.demo.metrics.TestDurations;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds tests back until the smoke tests they depend on have passed, and cancels them once
+ * one of those fails.
+ *
+ * <p>{@code <test>} blocks that include one of {@code gate.groups} (default {@code smoke})
+ * are gate stages; every other block is a later stage. With {@code gate.scope=class}
+ * (the default) a later-stage test waits in {@code setUp}, before leasing a browser, only
+ * for the gate-stage tests of its own class, so one site's functional tests start while
+ * another site's smoke tests are still running; {@code gate.scope=suite} waits for all of
+ * them. A gate opens once all of its tests have passed, or with {@code gate.open=first}
+ * as soon as one has, betting that the rest will too. When a gate test fails, later-stage
+ * tests of its class that are still queued are skipped without a browser, and those in
+ * flight are skipped at their next WebDriver command, giving their browser back. A test
+ * that waits longer than {@code gate.timeout.ms} (default 600000) runs anyway.
+ *
+ * <p>When stages overlap, at most {@link #limit} tests hold a browser at once across all
+ * of them. Enabled unless {@code -Dgate.enabled=false}.
+ */
+public final class SmokeGate {
+    private static final Logger LOG = LoggerFactory.getLogger(SmokeGate.class);
+    private static final String SUITE = "suite";
+    private static final SmokeGate INSTANCE = new SmokeGate(
+        Boolean.parseBoolean(System.getProperty("gate.enabled", "true")),
+        "suite".equalsIgnoreCase(System.getProperty("gate.scope", "class").trim()),
+        "first".equalsIgnoreCase(System.getProperty("gate.open", "all").trim()),
+        Long.getLong("gate.timeout.ms", 600_000));
+
+    private final boolean enabled;
+    private final boolean suiteScope;
+    private final boolean openOnFirstPass;
+    private final long timeoutMillis;
+    private final long startMillis = System.currentTimeMillis();
+    private final Set<String> groups = new LinkedHashSet<>();
+    private final Set<String> stages = new LinkedHashSet<>();
+    private final Map<String, Gate> gates = new TreeMap<>();
+    private final ThreadLocal<Running> current = new ThreadLocal<>();
+    private int slots = Integer.MAX_VALUE;
+    private int active;
+    private int overlapped;
+    private int cancelledQueued;
+    private int cancelledInFlight;
+    private long savedMillis;
+    private long waitNanos;
+
+    private SmokeGate(boolean enabled, boolean suiteScope, boolean openOnFirstPass, long timeoutMillis) {
+        this.enabled = enabled;
+        this.suiteScope = suiteScope;
+        this.openOnFirstPass = openOnFirstPass;
+        this.timeoutMillis = timeoutMillis;
+        for (String group : System.getProperty("gate.groups", "smoke").split(",")) {
+            if (!group.isBlank()) {
+                groups.add(group.trim());
+            }
+        }
+    }
+
+    public static SmokeGate getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The groups whose blocks are gate stages.
+     */
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public synchronized boolean isStage(String block) {
+        return stages.contains(block);
+    }
+
+    /**
+     * Declares {@code block} a gate stage over tests of {@code classes} (simple names). Its
+     * gates stay shut at least until the block's final method list is {@link #expect known}.
+     */
+    public synchronized void stage(String block, Collection<String> classes) {
+        stages.add(block);
+        for (String testClass : classes) {
+            gates.computeIfAbsent(key(testClass), Gate::new).unscheduled.add(block);
+        }
+    }
+
+    /**
+     * Records how many tests of each class gate stage {@code block} is going to run, after
+     * selection and sharding have had their say.
+     */
+    public synchronized void expect(String block, Map<String, Integer> testsByClass) {
+        for (Gate gate : gates.values()) {
+            gate.unscheduled.remove(block);
+        }
+        testsByClass.forEach((testClass, count) -> {
+            Gate gate = gates.get(key(testClass));
+            if (gate != null) {
+                gate.remaining += count;
+            }
+        });
+        gates.values().forEach(this::update);
+        notifyAll();
+    }
+
+    /**
+     * Caps the tests holding a browser at once, across overlapping stages.
+     */
+    public synchronized void limit(int slots) {
+        this.slots = Math.max(1, slots);
+    }
+
+    /**
+     * Counts a finished gate-stage test towards its gate; a failure shuts it for good.
+     *
+     * @param passed {@code false} for a failure, {@code null} for a skip, which says
+     *               nothing about the site either way
+     */
+    public synchronized void resolve(String block, String testClass, String test, Boolean passed, Throwable cause) {
+        Gate gate = gates.get(key(testClass));
+        if (gate == null || !stages.contains(block)) {
+            return;
+        }
+        gate.remaining--;
+        if (Boolean.TRUE.equals(passed)) {
+            gate.passed++;
+        }
+        if (Boolean.FALSE.equals(passed) && gate.failure == null) {
+            gate.failure = test + " failed" + (cause != null ? ": " + firstLine(cause) : "");
+            LOG.warn("Smoke gate {} shut: {}; cancelling its later tests", gate.key, gate.failure);
+        }
+        update(gate);
+        notifyAll();
+    }
+
+    /**
+     * Called in {@code setUp} before a browser is leased: waits for the test's gate to open
+     * and then for a slot.
+     *
+     * @throws Cancelled if the gate is shut
+     */
+    public void enter(String block) {
+        if (!enabled) {
+            return;
+        }
+        TestContext test = TestContext.current();
+        long start = System.nanoTime();
+        synchronized (this) {
+            Gate gate = stages.contains(block) ? null : gates.get(key(test.getTestClass()));
+            if (gate != null) {
+                await(gate, test);
+                if (gates.values().stream().anyMatch(g -> g.state == State.PENDING)) {
+                    overlapped++;
+                }
+                current.set(new Running(gate, System.currentTimeMillis()));
+            }
+            try {
+                while (active >= slots) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                current.remove();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a browser slot", e);
+            }
+            active++;
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void await(Gate gate, TestContext test) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (gate.state == State.PENDING && System.currentTimeMillis() < deadline) {
+                wait(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for smoke gate " + gate.key, e);
+        }
+        if (gate.state == State.SHUT) {
+            throw new Cancelled(gate.failure, -1);
+        }
+        if (gate.state == State.PENDING) {
+            LOG.warn("{} waited {} ms for smoke gate {}; running it anyway", test.getTestName(), timeoutMillis, gate.key);
+        }
+    }
+
+    /**
+     * Called in {@code tearDown} of every test that {@link #enter entered}.
+     */
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        current.remove();
+        synchronized (this) {
+            active--;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Wraps the driver a test talks to so that a cancelled test stops at its next command.
+     */
+    public WebDriver decorate(WebDriver driver) {
+        if (!enabled) {
+            return driver;
+        }
+        return new WebDriverDecorator<WebDriver>() {
+            @Override
+            public void beforeCall(Decorated<?> target, Method method, Object[] args) {
+                Running running = current.get();
+                if (running != null && running.gate.state == State.SHUT) {
+                    throw new Cancelled(running.gate.failure, System.currentTimeMillis() - running.startMillis);
+                }
+                super.beforeCall(target, method, args);
+            }
+        }.decorate(driver);
+    }
+
+    /**
+     * Accounts for a later-stage test skipped because its gate shut, in flight if it was
+     * stopped by a {@link Cancelled} that says how long it had run, queued otherwise.
+     */
+    public synchronized void cancelled(String block, String testClass, String test, Throwable cause) {
+        Gate gate = gates.get(key(testClass));
+        if (gate == null || gate.state != State.SHUT || stages.contains(block)) {
+            return;
+        }
+        long predicted = TestDurations.getInstance().predict(test);
+        long elapsed = cause instanceof Cancelled ? ((Cancelled) cause).elapsedMillis : -1;
+        if (elapsed < 0) {
+            cancelledQueued++;
+            savedMillis += predicted;
+        } else {
+            cancelledInFlight++;
+            savedMillis += Math.max(0, predicted - elapsed);
+        }
+        gate.cancelled++;
+    }
+
+    public synchronized Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scope", suiteScope ? "suite" : "class");
+        report.put("open", openOnFirstPass ? "first" : "all");
+        report.put("groups", groups);
+        report.put("stages", new ArrayList<>(stages));
+        Map<String, Object> byGate = new TreeMap<>();
+        gates.forEach((key, gate) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("state", gate.state.name().toLowerCase());
+            entry.put("failure", gate.failure);
+            entry.put("openedAfterMs", gate.openedMillis);
+            entry.put("cancelled", gate.cancelled);
+            byGate.put(key, entry);
+        });
+        report.put("gates", byGate);
+        report.put("shut", gates.values().stream().filter(gate -> gate.state == State.SHUT).count());
+        report.put("overlappedTests", overlapped);
+        report.put("cancelledQueued", cancelledQueued);
+        report.put("cancelledInFlight", cancelledInFlight);
+        report.put("savedMs", savedMillis);
+        report.put("waitedMs", TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        return report;
+    }
+
+    private void update(Gate gate) {
+        if (gate.failure != null) {
+            gate.state = State.SHUT;
+        } else if (gate.state == State.PENDING
+            && (gate.unscheduled.isEmpty() && gate.remaining <= 0 || openOnFirstPass && gate.passed > 0)) {
+            gate.state = State.OPEN;
+            gate.openedMillis = System.currentTimeMillis() - startMillis;
+            LOG.info("Smoke gate {} open after {} ms", gate.key, gate.openedMillis);
+        }
+    }
+
+    private String key(String testClass) {
+        return suiteScope ? SUITE : testClass;
+    }
+
+    private static String firstLine(Throwable cause) {
+        String message = String.valueOf(cause.getMessage());
+        int newline = message.indexOf('\n');
+        return cause.getClass().getSimpleName() + ": " + (newline < 0 ? message : message.substring(0, newline));
+    }
+
+    private enum State {
+        PENDING, OPEN, SHUT
+    }
+
+    private static final class Gate {
+        private final String key;
+        private final Set<String> unscheduled = new LinkedHashSet<>();
+        private volatile State state = State.PENDING;
+        private int remaining;
+        private int passed;
+        private String failure;
+        private Long openedMillis;
+        private int cancelled;
+
+        private Gate(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Running {
+        private final Gate gate;
+        private final long startMillis;
+
+        private Running(Gate gate, long startMillis) {
+            this.gate = gate;
+            this.startMillis = startMillis;
+        }
+    }
+
+    /**
+     * Skips a test whose smoke gate shut, before or while it ran.
+     */
+    public static final class Cancelled extends SkipException {
+        private static final long serialVersionUID = 1L;
+
+        private final long elapsedMillis;
+
+        private Cancelled(String failure, long elapsedMillis) {
+            super("Cancelled: " + failure);
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.SmokeGate;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAlterSuiteListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the suite in stages behind the {@link SmokeGate}: blocks that include a gate group
+ * run first, and every other block is held back per class until its smoke tests have
+ * passed, or cancelled when one fails.
+ *
+ * <p>Unless {@code -Dgate.overlap=false}, a suite running methods in parallel is changed
+ * to run its blocks side by side, each with the suite's threads, while the gate keeps the
+ * number of tests holding a browser at the suite's thread count. Later stages then take
+ * up the slots smoke tests leave free instead of waiting for the slowest one.
+ *
+ * <p>Registered after the other method interceptors, so it sees the methods that will
+ * actually run, and after {@link GroupDeduplicator}, whose merged gate-stage blocks it
+ * treats as gate stages although they no longer select by group. Writes {@code smoke-gate.json} to the TestNG output directory and logs the
+ * time cancellation saved, predicted from earlier runs' durations.
+ */
+public class StagedExecution implements IAlterSuiteListener, IMethodInterceptor, ITestListener, IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(StagedExecution.class);
+    private static final boolean OVERLAP = Boolean.parseBoolean(System.getProperty("gate.overlap", "true"));
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        SmokeGate gate = SmokeGate.getInstance();
+        if (!gate.isEnabled()) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            List<XmlTest> stages = new ArrayList<>();
+            List<XmlTest> later = new ArrayList<>();
+            for (XmlTest test : suite.getTests()) {
+                boolean gating = !Collections.disjoint(test.getIncludedGroups(), gate.getGroups())
+                    || GroupDeduplicator.isGateStage(test.getName());
+                (gating ? stages : later).add(test);
+            }
+            if (stages.isEmpty()) {
+                LOG.info("No <test> block includes {}; running {} without a smoke gate", gate.getGroups(), suite.getName());
+                continue;
+            }
+            for (XmlTest stage : stages) {
+                Set<String> classes = new LinkedHashSet<>();
+                for (XmlClass xmlClass : stage.getXmlClasses()) {
+                    classes.add(xmlClass.getSupportClass().getSimpleName());
+                }
+                gate.stage(stage.getName(), classes);
+            }
+            // Gate stages first, so they start even when blocks run one after another
+            suite.getTests().clear();
+            suite.getTests().addAll(stages);
+            suite.getTests().addAll(later);
+            if (OVERLAP && !later.isEmpty() && overlappable(suite.getParallel())) {
+                overlap(suite, gate);
+            }
+        }
+    }
+
+    private static boolean overlappable(XmlSuite.ParallelMode parallel) {
+        return parallel == XmlSuite.ParallelMode.METHODS
+            || parallel == XmlSuite.ParallelMode.CLASSES
+            || parallel == XmlSuite.ParallelMode.INSTANCES;
+    }
+
+    private static void overlap(XmlSuite suite, SmokeGate gate) {
+        int threads = suite.getThreadCount();
+        for (XmlTest test : suite.getTests()) {
+            // Read before the suite changes, since blocks inherit both from it
+            XmlSuite.ParallelMode parallel = test.getParallel();
+            int count = test.getThreadCount();
+            test.setParallel(parallel);
+            test.setThreadCount(count);
+        }
+        suite.setParallel(XmlSuite.ParallelMode.TESTS);
+        suite.setThreadCount(suite.getTests().size());
+        gate.limit(threads);
+        LOG.info("Overlapping {} blocks behind the smoke gate, {} browsers at most", suite.getTests().size(), threads);
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        SmokeGate gate = SmokeGate.getInstance();
+        if (gate.isEnabled() && gate.isStage(context.getName())) {
+            Map<String, Integer> testsByClass = new LinkedHashMap<>();
+            for (IMethodInstance method : methods) {
+                testsByClass.merge(method.getMethod().getRealClass().getSimpleName(), 1, Integer::sum);
+            }
+            gate.expect(context.getName(), testsByClass);
+        }
+        return methods;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        resolve(result, true);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        resolve(result, true);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        resolve(result, false);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (result.wasRetried()) {
+            // It runs again; the retry decides
+            return;
+        }
+        resolve(result, null);
+        SmokeGate.getInstance().cancelled(result.getTestContext().getName(),
+            result.getMethod().getRealClass().getSimpleName(), LongestFirstScheduler.name(result.getMethod()),
+            result.getThrowable());
+    }
+
+    private static void resolve(ITestResult result, Boolean passed) {
+        SmokeGate.getInstance().resolve(result.getTestContext().getName(),
+            result.getMethod().getRealClass().getSimpleName(), LongestFirstScheduler.name(result.getMethod()),
+            passed, result.getThrowable());
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        SmokeGate gate = SmokeGate.getInstance();
+        if (!gate.isEnabled()) {
+            return;
+        }
+        Map<String, Object> report = gate.report();
+        if (((List<?>) report.get("stages")).isEmpty()) {
+            return;
+        }
+        LOG.info("Smoke gate: {} of {} gates shut, {} tests cancelled ({} queued, {} in flight) saving ~{} s; "
+                + "{} later tests started alongside smoke tests",
+            report.get("shut"), ((Map<?, ?>) report.get("gates")).size(),
+            (Integer) report.get("cancelledQueued") + (Integer) report.get("cancelledInFlight"),
+            report.get("cancelledQueued"), report.get("cancelledInFlight"), (Long) report.get("savedMs") / 1000,
+            report.get("overlappedTests"));
+        Path file = Paths.get(outputDirectory, "smoke-gate.json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.launchable.demo.base;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Identifies the test method running on the current thread, so that infrastructure deep in
+ * the driver layer (metrics, reports) can attribute its work without being handed the test.
+ */
+public final class TestContext {
+    private static final ThreadLocal<TestContext> CURRENT = new ThreadLocal<>();
+    private static final TestContext NONE = new TestContext("none", "none", new String[0], "none");
+
+    private final String testClass;
+    private final String testMethod;
+    private final List<String> groups;
+    private final String browser;
+
+    TestContext(String testClass, String testMethod, String[] groups, String browser) {
+        this.testClass = testClass;
+        this.testMethod = testMethod;
+        this.groups = Collections.unmodifiableList(Arrays.asList(groups));
+        this.browser = browser;
+    }
+
+    /**
+     * Returns the context of the test running on this thread, or a placeholder outside tests.
+     */
+    public static TestContext current() {
+        TestContext context = CURRENT.get();
+        return context != null ? context : NONE;
+    }
+
+    /**
+     * Whether this is a real test's context rather than the placeholder.
+     */
+    public boolean isTest() {
+        return this != NONE;
+    }
+
+    static void bind(TestContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public String getTestClass() {
+        return testClass;
+    }
+
+    public String getTestMethod() {
+        return testMethod;
+    }
+
+    public String getTestName() {
+        return testClass + "." + testMethod;
+    }
+
+    public List<String> getGroups() {
+        return groups;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+}
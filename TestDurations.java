@@ -0,0 +1,91 @@
+package com.launchable.demo.metrics;
+
+import com.launchable.demo.base.LocalStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How long each test method usually takes, from lease to release, kept in the
+ * {@link LocalStore} ({@code durations.properties}) across runs.
+ *
+ * <p>Each passing run moves the stored value halfway towards the new measurement, which
+ * follows real changes within a couple of runs without letting one slow run dominate.
+ * Methods without history are predicted at the median of the known ones.
+ *
+ * <p>Predictions only use what was stored when the run started, so every decision taken
+ * during a run (and on every shard of it) sees the same history.
+ */
+public final class TestDurations {
+    private static final String STORE = "durations.properties";
+    private static final long NO_HISTORY_MILLIS = 5_000;
+    private static final TestDurations INSTANCE = new TestDurations();
+
+    private final Map<String, Long> history = new ConcurrentHashMap<>();
+    private final Map<String, Long> measured = new ConcurrentHashMap<>();
+    private final long fallback;
+
+    private TestDurations() {
+        Properties stored = LocalStore.load(STORE);
+        for (String test : stored.stringPropertyNames()) {
+            try {
+                history.put(test, Long.parseLong(stored.getProperty(test).trim()));
+            } catch (NumberFormatException e) {
+                // Ignore a damaged line rather than the whole history
+            }
+        }
+        fallback = median();
+    }
+
+    public static TestDurations getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isKnown(String test) {
+        return history.containsKey(test);
+    }
+
+    /**
+     * Expected duration of {@code test} ({@code Class.method}) in milliseconds.
+     */
+    public long predict(String test) {
+        Long known = history.get(test);
+        return known != null ? known : fallback;
+    }
+
+    public void record(String test, long durationMillis) {
+        measured.merge(test, durationMillis, (earlier, latest) -> (earlier + latest) / 2);
+    }
+
+    /**
+     * Folds this run's measurements into the stored history as it is now, so shards that
+     * finish at the same time do not drop each other's measurements.
+     */
+    public void save() {
+        if (measured.isEmpty()) {
+            return;
+        }
+        LocalStore.update(STORE, stored -> measured.forEach((test, value) -> {
+            long merged = value;
+            try {
+                merged = (Long.parseLong(stored.getProperty(test, "").trim()) + value) / 2;
+            } catch (NumberFormatException e) {
+                // No usable history for this test yet
+            }
+            stored.setProperty(test, Long.toString(merged));
+        }), "Typical test method durations in ms");
+    }
+
+    private long median() {
+        List<Long> values = new ArrayList<>(history.values());
+        if (values.isEmpty()) {
+            return NO_HISTORY_MILLIS;
+        }
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+}
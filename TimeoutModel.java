@@ -0,0 +1,240 @@
+package com.launchable.demo.base;
+
+import com.launchable.demo.network.NetworkCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timeouts for {@link Waits} learned from how long each wait took in earlier runs, kept in
+ * the {@link LocalStore} ({@code timeouts.properties}).
+ *
+ * <p>A wait site is the kind of wait and what it waits for (usually a locator), per browser
+ * and headless mode, and per network mode and browser profile when those are not the
+ * default: a replayed or stripped-down page answers far faster than the live one, and must
+ * not teach live runs to give up early. Once a site has {@code timeouts.min.samples} (default 20) successful
+ * waits on record, its timeout is their p99 times {@code timeouts.factor} (default 3),
+ * kept between {@code timeouts.floor.ms} (1000) and {@code timeouts.ceiling.ms} (30000):
+ * a broken step fails after a few times its usual latency rather than a flat ten seconds,
+ * and a page that is always slow gets the time it needs. Until then the wait's default
+ * applies. A wait that succeeds but takes more than {@code timeouts.drift} (default 1.5)
+ * times its p99 is logged as drift. The last {@code timeouts.window} (default 100) samples
+ * of each site are kept.
+ *
+ * <p>Timeouts only use what was stored when the run started, so every test in a run (and
+ * on every shard of it) gets the same one. A run's samples are merged into the file as it
+ * is when the run ends, so shards sharing the store keep each other's. Disabled with
+ * {@code -Dtimeouts.learn=false}.
+ */
+public final class TimeoutModel {
+    private static final Logger LOG = LoggerFactory.getLogger(TimeoutModel.class);
+    private static final String STORE = "timeouts.properties";
+    private static final TimeoutModel INSTANCE = new TimeoutModel();
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("timeouts.learn", "true"));
+    private final double factor = Double.parseDouble(System.getProperty("timeouts.factor", "3"));
+    private final double drift = Double.parseDouble(System.getProperty("timeouts.drift", "1.5"));
+    private final int minSamples = Integer.getInteger("timeouts.min.samples", 20);
+    private final int window = Integer.getInteger("timeouts.window", 100);
+    private final long floorMillis = Long.getLong("timeouts.floor.ms", 1_000);
+    private final long ceilingMillis = Long.getLong("timeouts.ceiling.ms", 30_000);
+    // Oldest first, as stored
+    private final Map<String, List<Long>> history = new TreeMap<>();
+    private final Map<String, Long> p99 = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> measured = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> drifted = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> timedOut = new ConcurrentHashMap<>();
+    private final AtomicInteger learnedWaits = new AtomicInteger();
+
+    private TimeoutModel() {
+        Properties stored = LocalStore.load(STORE);
+        for (String site : stored.stringPropertyNames()) {
+            List<Long> samples = parse(stored.getProperty(site));
+            if (samples == null) {
+                // Ignore a damaged line rather than the whole history
+                continue;
+            }
+            history.put(site, samples);
+            if (samples.size() >= minSamples) {
+                p99.put(site, percentile(samples, 99));
+            }
+        }
+    }
+
+    public static TimeoutModel getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The part of a wait site that identifies the browser and what it is served, e.g.
+     * {@code chrome:headless} or {@code chrome:headless:replay:fast}.
+     */
+    public static String profile(String browser, boolean headless) {
+        StringBuilder profile = new StringBuilder(new BrowserSpec(browser, headless).toString());
+        String network = NetworkCache.getInstance().getMode();
+        if (!network.equals("live")) {
+            profile.append(':').append(network);
+        }
+        String browserProfile = BrowserProfile.current().getName();
+        if (!browserProfile.equals("default")) {
+            profile.append(':').append(browserProfile);
+        }
+        return profile.toString();
+    }
+
+    /**
+     * The learned timeout of a wait site, or {@code fallback} while it has too little history.
+     */
+    public Duration timeout(String profile, String kind, String site, Duration fallback) {
+        Long known = enabled ? p99.get(key(profile, kind, site)) : null;
+        if (known == null) {
+            return fallback;
+        }
+        learnedWaits.incrementAndGet();
+        long millis = Math.round(known * factor);
+        return Duration.ofMillis(Math.max(floorMillis, Math.min(ceilingMillis, millis)));
+    }
+
+    /**
+     * Records a wait that succeeded after {@code nanos}.
+     */
+    public void record(String profile, String kind, String site, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(profile, kind, site);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        measured.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(millis);
+        Long known = p99.get(key);
+        // The absolute margin keeps waits that usually take a few milliseconds from crying wolf
+        if (known != null && millis > Math.max(known * drift, known + 50)) {
+            drifted.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            LOG.warn("{} took {} ms in {}, beyond its learned p99 of {} ms",
+                kind + " " + site, millis, TestContext.current().getTestName(), known);
+        }
+    }
+
+    /**
+     * Records a wait that gave up after {@code timeout}.
+     */
+    public void timedOut(String profile, String kind, String site, Duration timeout) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(profile, kind, site);
+        timedOut.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        Long known = p99.get(key);
+        if (known != null) {
+            LOG.warn("{} gave up in {} after its learned {} ms (p99 {} ms)",
+                kind + " " + site, TestContext.current().getTestName(), timeout.toMillis(), known);
+        }
+    }
+
+    /**
+     * Adds this run's samples to the stored history as it is now, keeping the latest of
+     * each site.
+     */
+    public void save() {
+        if (!enabled || measured.isEmpty()) {
+            return;
+        }
+        LocalStore.update(STORE, stored -> measured.forEach((key, samples) -> {
+            List<Long> merged = parse(stored.getProperty(key, ""));
+            if (merged == null) {
+                merged = new ArrayList<>();
+            }
+            synchronized (samples) {
+                merged.addAll(samples);
+            }
+            StringBuilder values = new StringBuilder();
+            for (long sample : merged.subList(Math.max(0, merged.size() - window), merged.size())) {
+                values.append(values.length() == 0 ? "" : ",").append(sample);
+            }
+            stored.setProperty(key, values.toString());
+        }), "Recent latencies of each wait site in ms, oldest first");
+    }
+
+    /**
+     * Every site seen in the history or this run, with its learned envelope and this run's
+     * waits, drift and timeouts.
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> sites = new TreeMap<>();
+        List<String> keys = new ArrayList<>(history.keySet());
+        keys.addAll(measured.keySet());
+        for (String key : keys) {
+            if (sites.containsKey(key)) {
+                continue;
+            }
+            Map<String, Object> site = new LinkedHashMap<>();
+            Long known = p99.get(key);
+            site.put("history", history.getOrDefault(key, Collections.emptyList()).size());
+            site.put("p99Ms", known);
+            site.put("timeoutMs", known != null
+                ? Math.max(floorMillis, Math.min(ceilingMillis, Math.round(known * factor))) : null);
+            List<Long> samples = measured.get(key);
+            if (samples != null) {
+                synchronized (samples) {
+                    site.put("waits", samples.size());
+                    site.put("runP99Ms", percentile(samples, 99));
+                }
+            }
+            site.put("drifted", count(drifted, key));
+            site.put("timedOut", count(timedOut, key));
+            sites.put(key, site);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("factor", factor);
+        report.put("learnedSites", p99.size());
+        report.put("learnedWaits", learnedWaits.get());
+        report.put("drifted", drifted.values().stream().mapToInt(AtomicInteger::get).sum());
+        report.put("timedOut", timedOut.values().stream().mapToInt(AtomicInteger::get).sum());
+        report.put("sites", sites);
+        return report;
+    }
+
+    private static int count(Map<String, AtomicInteger> counts, String key) {
+        AtomicInteger count = counts.get(key);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * The samples of a stored line, or {@code null} when it is damaged.
+     */
+    private static List<Long> parse(String line) {
+        List<Long> samples = new ArrayList<>();
+        try {
+            for (String value : line.split(",")) {
+                if (!value.isBlank()) {
+                    samples.add(Long.parseLong(value.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return samples;
+    }
+
+    private static String key(String profile, String kind, String site) {
+        return String.join(" ", profile, kind, site);
+    }
+
+    private static long percentile(List<Long> samples, double percentile) {
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,45 @@
+package com.launchable.demo.listeners;
+
+import com.launchable.demo.base.TimeoutModel;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores this run's wait latencies for the {@link TimeoutModel} and writes every wait
+ * site's learned timeout, drift and timeouts to {@code timeouts.json} in the TestNG output
+ * directory.
+ */
+public class TimeoutReporter implements IReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(TimeoutReporter.class);
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        TimeoutModel model = TimeoutModel.getInstance();
+        Map<String, Object> report = model.report();
+        if (!(Boolean) report.get("enabled")) {
+            return;
+        }
+        LOG.info("Learned timeouts: {} wait sites known, {} waits used them, {} drifted, {} timed out",
+            report.get("learnedSites"), report.get("learnedWaits"), report.get("drifted"), report.get("timedOut"));
+        model.save();
+        Path file = Paths.get(outputDirectory, "timeouts.json");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOG.warn("Could not write {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.launchable.demo.tests;
+
+import com.launchable.demo.base.BaseTest;
+import com.launchable.demo.metrics.BenchmarkResults;
+import com.launchable.demo.pages.TodoPage;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How TodoMVC and the driver layer scale with the length of the list. Not part of the
+ * regular suites; run it with {@code mvn test -Pbenchmark}.
+ *
+ * <p>For every entry mode ({@code keyboard}: one {@code sendKeys} per todo, {@code script}:
+ * all todos in one script call) and list size, each iteration starts from an empty list,
+ * fills it and then times adding one more todo, toggling, both filters, deleting and a
+ * {@code findElements} over the whole list. The first {@code benchmark.warmup} iterations
+ * are thrown away and the next {@code benchmark.iterations} are recorded into
+ * {@link BenchmarkResults}.
+ */
+public class TodoMVCBenchmark extends BaseTest {
+    private static final String[] MODES = System.getProperty("benchmark.modes", "keyboard,script").split(",");
+    private static final String[] SIZES = System.getProperty("benchmark.sizes", "10,100,1000,5000").split(",");
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 1);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 3);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("benchmark.timeout.s", 120));
+
+    @DataProvider(name = "listSizes")
+    public Object[][] listSizes() {
+        List<Object[]> cases = new ArrayList<>();
+        for (String mode : MODES) {
+            for (String size : SIZES) {
+                cases.add(new Object[] {mode.trim(), Integer.parseInt(size.trim())});
+            }
+        }
+        return cases.toArray(new Object[0][]);
+    }
+
+    @Test(groups = {"benchmark"}, dataProvider = "listSizes")
+    public void benchmarkListScaling(String mode, int size) {
+        Assert.assertTrue(mode.equals("keyboard") || mode.equals("script"), "Unknown entry mode " + mode);
+        for (int iteration = 0; iteration < WARMUP + ITERATIONS; iteration++) {
+            iterate(mode, size, iteration >= WARMUP);
+        }
+    }
+
+    private void iterate(String mode, int size, boolean measured) {
+        TodoPage todos = new TodoPage(elements()).reset();
+        List<String> items = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            items.add("Todo " + i);
+        }
+
+        long start = System.nanoTime();
+        if (mode.equals("script")) {
+            todos.inject(items);
+        } else {
+            todos.add(items.toArray(new String[0]));
+        }
+        Assert.assertTrue(todos.awaitItems(size, TIMEOUT), "List never reached " + size + " items");
+        record(measured, mode, BenchmarkResults.FILL, size, start);
+
+        start = System.nanoTime();
+        List<WebElement> found = driver().findElements(TodoPage.ITEMS);
+        record(measured, mode, "findElements", size, start);
+        Assert.assertEquals(found.size(), size);
+
+        start = System.nanoTime();
+        todos.add("One more");
+        Assert.assertTrue(todos.awaitItems(size + 1, TIMEOUT), "Added todo never showed up");
+        record(measured, mode, "add", size, start);
+
+        start = System.nanoTime();
+        todos.completeFirst();
+        waits().present(TodoPage.COMPLETED_ITEMS, TIMEOUT);
+        record(measured, mode, "toggle", size, start);
+
+        start = System.nanoTime();
+        todos.showActive();
+        Assert.assertTrue(todos.awaitItems(size, TIMEOUT), "Active filter showed the wrong items");
+        record(measured, mode, "filter-active", size, start);
+
+        start = System.nanoTime();
+        todos.showCompleted();
+        Assert.assertTrue(todos.awaitItems(1, TIMEOUT), "Completed filter showed the wrong items");
+        record(measured, mode, "filter-completed", size, start);
+
+        todos.showAll();
+        Assert.assertTrue(todos.awaitItems(size + 1, TIMEOUT), "All filter showed the wrong items");
+
+        start = System.nanoTime();
+        todos.deleteFirst();
+        Assert.assertTrue(todos.awaitItems(size, TIMEOUT), "Deleted todo is still listed");
+        record(measured, mode, "delete", size, start);
+    }
+
+    private static void record(boolean measured, String mode, String operation, int size, long startNanos) {
+        if (measured) {
+            BenchmarkResults.getInstance().record(mode, operation, size, System.nanoTime() - startNanos);
+        }
+    }
+}
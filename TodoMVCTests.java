@@ -1,149 +1,97 @@
 package com.launchable.demo.tests;
 
 import com.launchable.demo.base.BaseTest;
-import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
+import com.launchable.demo.pages.TodoPage;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import java.time.Duration;
 import java.util.List;
 
 public class TodoMVCTests extends BaseTest {
-    private static final String TODO_URL = "https://todomvc.com/examples/react/";
-    private WebDriverWait wait;
     
     @BeforeMethod
     public void navigateToTodoMVC() {
-        driver.get(TODO_URL);
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        todoPage().open();
     }
     
     @Test(priority = 1, groups = {"smoke", "critical"})
     public void testAddSingleTodo() {
         String todoText = "Learn Selenium WebDriver";
         
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        todoInput.sendKeys(todoText);
-        todoInput.sendKeys(Keys.ENTER);
+        TodoPage todos = todoPage().add(todoText);
         
-        WebElement todoItem = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.xpath("//label[text()='" + todoText + "']")));
+        Assert.assertTrue(todos.label(todoText).isDisplayed());
         
-        Assert.assertTrue(todoItem.isDisplayed());
-        
-        WebElement todoCount = driver.findElement(By.className("todo-count"));
-        Assert.assertTrue(todoCount.getText().contains("1"));
+        Assert.assertTrue(todos.count().getText().contains("1"));
     }
     
     @Test(priority = 2, groups = {"smoke", "critical"})
     public void testAddMultipleTodos() {
-        String[] todos = {"Task 1", "Task 2", "Task 3"};
-        
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        
-        for (String todo : todos) {
-            todoInput.clear();
-            todoInput.sendKeys(todo);
-            todoInput.sendKeys(Keys.ENTER);
-        }
+        TodoPage todos = todoPage().add("Task 1", "Task 2", "Task 3");
         
-        List<WebElement> todoItems = driver.findElements(By.cssSelector(".todo-list li"));
+        List<WebElement> todoItems = todos.items(TodoPage.ITEMS, 3);
         Assert.assertEquals(todoItems.size(), 3);
         
-        WebElement todoCount = driver.findElement(By.className("todo-count"));
-        Assert.assertTrue(todoCount.getText().contains("3"));
+        Assert.assertTrue(todos.count().getText().contains("3"));
     }
     
     @Test(priority = 3, groups = {"functional"})
     public void testCompleteTodo() {
-        String todoText = "Complete this task";
-        
         // Add todo
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        todoInput.sendKeys(todoText);
-        todoInput.sendKeys(Keys.ENTER);
+        TodoPage todos = todoPage().add("Complete this task");
         
         // Complete todo
-        WebElement checkbox = wait.until(ExpectedConditions.elementToBeClickable(
-            By.cssSelector(".todo-list li .toggle")));
-        checkbox.click();
+        todos.completeFirst();
         
         // Verify completion
-        WebElement completedTodo = driver.findElement(By.cssSelector(".todo-list li.completed"));
-        Assert.assertTrue(completedTodo.isDisplayed());
+        Assert.assertTrue(todos.firstCompleted().isDisplayed());
         
-        WebElement todoCount = driver.findElement(By.className("todo-count"));
-        Assert.assertTrue(todoCount.getText().contains("0"));
+        Assert.assertTrue(todos.count().getText().contains("0"));
     }
     
     @Test(priority = 4, groups = {"functional"})
     public void testFilterTodos() {
         // Add multiple todos
-        String[] todos = {"Active Task", "Completed Task"};
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        
-        for (String todo : todos) {
-            todoInput.clear();
-            todoInput.sendKeys(todo);
-            todoInput.sendKeys(Keys.ENTER);
-        }
+        TodoPage todos = todoPage().add("Active Task", "Completed Task");
         
-        // Complete one todo
-        List<WebElement> checkboxes = driver.findElements(By.cssSelector(".todo-list li .toggle"));
-        checkboxes.get(1).click(); // Complete second todo
+        // Complete second todo
+        todos.complete(1, 2);
         
         // Test Active filter
-        WebElement activeFilter = driver.findElement(By.linkText("Active"));
-        activeFilter.click();
+        todos.showActive();
         
-        List<WebElement> activeTodos = driver.findElements(By.cssSelector(".todo-list li:not(.completed)"));
+        List<WebElement> activeTodos = todos.items(TodoPage.ACTIVE_ITEMS, 1);
         Assert.assertEquals(activeTodos.size(), 1);
         
         // Test Completed filter
-        WebElement completedFilter = driver.findElement(By.linkText("Completed"));
-        completedFilter.click();
+        todos.showCompleted();
         
-        List<WebElement> completedTodos = driver.findElements(By.cssSelector(".todo-list li.completed"));
+        List<WebElement> completedTodos = todos.items(TodoPage.COMPLETED_ITEMS, 1);
         Assert.assertEquals(completedTodos.size(), 1);
     }
     
     @Test(priority = 5, groups = {"functional"})
     public void testDeleteTodo() {
-        String todoText = "Delete this task";
-        
         // Add todo
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        todoInput.sendKeys(todoText);
-        todoInput.sendKeys(Keys.ENTER);
-        
-        // Hover over todo to reveal delete button
-        WebElement todoItem = wait.until(ExpectedConditions.presenceOfElementLocated(
-            By.cssSelector(".todo-list li")));
+        TodoPage todos = todoPage().add("Delete this task");
         
-        // Trigger hover and click delete
-        WebElement deleteButton = todoItem.findElement(By.className("destroy"));
-        ((org.openqa.selenium.interactions.Actions) new org.openqa.selenium.interactions.Actions(driver))
-            .moveToElement(todoItem)
-            .click(deleteButton)
-            .perform();
+        // Hover over todo to reveal delete button and click it
+        todos.deleteFirst();
         
         // Verify todo is deleted
-        List<WebElement> remainingTodos = driver.findElements(By.cssSelector(".todo-list li"));
-        Assert.assertEquals(remainingTodos.size(), 0);
+        Assert.assertTrue(todos.isEmpty(), "Deleted todo should be removed");
     }
     
     @Test(priority = 6, groups = {"edge-case"})
     public void testEmptyTodoInput() {
-        WebElement todoInput = driver.findElement(By.className("new-todo"));
-        todoInput.sendKeys("");
-        todoInput.sendKeys(Keys.ENTER);
+        TodoPage todos = todoPage().add("");
         
-        List<WebElement> todoItems = driver.findElements(By.cssSelector(".todo-list li"));
-        Assert.assertEquals(todoItems.size(), 0, "Empty todo should not be added");
+        Assert.assertTrue(todos.isEmpty(), "Empty todo should not be added");
+    }
+
+    private TodoPage todoPage() {
+        return new TodoPage(elements());
     }
-}
\ No newline at end of file
+}
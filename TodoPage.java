@@ -0,0 +1,156 @@
+package com.launchable.demo.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The TodoMVC React example. The input, counter and filters are cached; the list itself
+ * changes with every action, so it is always read fresh.
+ */
+public class TodoPage extends Page {
+    public static final String URL = "https://todomvc.com/examples/react/";
+    public static final By ITEMS = By.cssSelector(".todo-list li");
+    public static final By ACTIVE_ITEMS = By.cssSelector(".todo-list li:not(.completed)");
+    public static final By COMPLETED_ITEMS = By.cssSelector(".todo-list li.completed");
+    private static final By TOGGLES = By.cssSelector(".todo-list li .toggle");
+    // Types into the input the way a user would, one todo at a time, but within the page:
+    // the native setter gets past React's value tracking, and keyCode is patched in for
+    // versions of the app that still check it
+    private static final String INJECT_SCRIPT = String.join("\n",
+        "var input = document.querySelector('.new-todo');",
+        "var setValue = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;",
+        "arguments[0].forEach(function (text) {",
+        "  setValue.call(input, text);",
+        "  input.dispatchEvent(new Event('input', {bubbles: true}));",
+        "  var enter = new KeyboardEvent('keydown', {key: 'Enter', code: 'Enter', bubbles: true});",
+        "  Object.defineProperty(enter, 'keyCode', {get: function () { return 13; }});",
+        "  Object.defineProperty(enter, 'which', {get: function () { return 13; }});",
+        "  input.dispatchEvent(enter);",
+        "});",
+        "return arguments[0].length;");
+
+    private final Element newTodo = present(By.className("new-todo"));
+    private final Element count = present(By.className("todo-count"));
+    private final Element firstToggle = clickable(TOGGLES);
+    private final Element firstCompleted = present(COMPLETED_ITEMS);
+    private final Element activeFilter = present(By.linkText("Active"));
+    private final Element completedFilter = present(By.linkText("Completed"));
+    private final Element allFilter = present(By.linkText("All"));
+
+    public TodoPage(ElementCache cache) {
+        super(cache);
+    }
+
+    public TodoPage open() {
+        driver().get(URL);
+        return this;
+    }
+
+    /**
+     * Opens the app with an empty list, whatever an earlier visit in this test left behind.
+     */
+    public TodoPage reset() {
+        open();
+        ((JavascriptExecutor) driver()).executeScript("window.localStorage.clear();");
+        return open();
+    }
+
+    /**
+     * Types each todo followed by Enter, one command per todo.
+     */
+    public TodoPage add(String... todos) {
+        for (String todo : todos) {
+            newTodo.sendKeys(todo, Keys.ENTER);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all {@code todos} with one script call instead of one command per todo.
+     */
+    public TodoPage inject(List<String> todos) {
+        ((JavascriptExecutor) driver()).executeScript(INJECT_SCRIPT, todos);
+        return this;
+    }
+
+    public Element label(String text) {
+        return present(By.xpath("//label[text()='" + text + "']"));
+    }
+
+    public Element count() {
+        return count;
+    }
+
+    /**
+     * Waits for exactly {@code expected} items matching {@code items} and returns them.
+     */
+    public List<WebElement> items(By items, int expected) {
+        return waits().count(items, expected);
+    }
+
+    /**
+     * Waits until exactly {@code expected} items are shown. Resolved in the page, so unlike
+     * {@link #items} it costs the same for five thousand items as for five.
+     */
+    public boolean awaitItems(int expected, Duration timeout) {
+        try {
+            if (expected > 0) {
+                waits().present(nthItem(expected), timeout);
+            }
+            return waits().absent(nthItem(expected + 1), timeout);
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static By nthItem(int n) {
+        return By.cssSelector(".todo-list li:nth-child(" + n + ")");
+    }
+
+    public boolean isEmpty() {
+        return waits().absent(ITEMS);
+    }
+
+    public void completeFirst() {
+        firstToggle.click();
+    }
+
+    /**
+     * Completes item {@code index} of a list expected to hold {@code total} items.
+     */
+    public void complete(int index, int total) {
+        waits().count(TOGGLES, total).get(index).click();
+    }
+
+    public Element firstCompleted() {
+        return firstCompleted;
+    }
+
+    public void showActive() {
+        activeFilter.click();
+    }
+
+    public void showCompleted() {
+        completedFilter.click();
+    }
+
+    public void showAll() {
+        allFilter.click();
+    }
+
+    /**
+     * Hovers the first item to reveal its delete button and clicks it.
+     */
+    public void deleteFirst() {
+        WebElement item = waits().present(ITEMS);
+        WebElement destroy = item.findElement(By.className("destroy"));
+        new Actions(driver()).moveToElement(item).click(destroy).perform();
+    }
+}
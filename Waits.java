@@ -0,0 +1,278 @@
+package com.launchable.demo.base;
+
+import com.launchable.demo.metrics.CommandMetrics;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Explicit waits for one browser session.
+ *
+ * <p>Sessions run with a zero implicit wait, so {@code findElements} answers immediately
+ * and every wait is spelled out here with its own timeout. Presence checks return as soon
+ * as the element shows up; absence checks return as soon as it is gone instead of paying
+ * a full implicit wait to prove a negative.
+ *
+ * <p>Single-element conditions are resolved in the page by {@link DomWaits}, which reacts to
+ * DOM mutations instead of polling over the wire, and alerts wait on DevTools dialog events
+ * where the browser offers them. Either falls back to {@link WebDriverWait} polling when it
+ * cannot be used; {@code -Dwaits.engine=poll} forces polling throughout.
+ *
+ * <p>Each wait is timed into {@link CommandMetrics} as {@code wait.<kind>}, separately from
+ * the driver commands it issues. A wait called without a timeout uses the one the
+ * {@link TimeoutModel} has learned for it, and the default until it has learned one.
+ */
+public final class Waits {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final boolean DOM_ENGINE = !"poll".equalsIgnoreCase(System.getProperty("waits.engine", "dom"));
+
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final String profile;
+    private final DomWaits dom;
+
+    public Waits(WebDriver driver) {
+        this(driver, DEFAULT_TIMEOUT);
+    }
+
+    public Waits(WebDriver driver, Duration timeout) {
+        this(driver, timeout, "any");
+    }
+
+    /**
+     * @param profile the browser the session runs, as given by {@link TimeoutModel#profile},
+     *                under which waits without a timeout learn theirs
+     */
+    public Waits(WebDriver driver, Duration timeout, String profile) {
+        this.driver = driver;
+        this.timeout = timeout;
+        this.profile = profile;
+        this.dom = new DomWaits(driver);
+    }
+
+    public WebElement present(By locator) {
+        return present(locator, null);
+    }
+
+    public WebElement present(By locator, Duration timeout) {
+        return element(locator, DomWaits.Condition.PRESENT, null, timeout,
+            ExpectedConditions.presenceOfElementLocated(locator));
+    }
+
+    public WebElement visible(By locator) {
+        return visible(locator, null);
+    }
+
+    public WebElement visible(By locator, Duration timeout) {
+        return element(locator, DomWaits.Condition.VISIBLE, null, timeout,
+            ExpectedConditions.visibilityOfElementLocated(locator));
+    }
+
+    public WebElement clickable(By locator) {
+        return clickable(locator, null);
+    }
+
+    public WebElement clickable(By locator, Duration timeout) {
+        return element(locator, DomWaits.Condition.CLICKABLE, null, timeout,
+            ExpectedConditions.elementToBeClickable(locator));
+    }
+
+    /**
+     * Waits until the visible text of the first match differs from {@code previousText}.
+     */
+    public WebElement textChanges(By locator, String previousText) {
+        return textChanges(locator, previousText, null);
+    }
+
+    public WebElement textChanges(By locator, String previousText, Duration timeout) {
+        return element(locator, DomWaits.Condition.TEXT_CHANGE, previousText, timeout, d -> {
+            WebElement element = d.findElement(locator);
+            return element.getText().trim().equals(previousText.trim()) ? null : element;
+        });
+    }
+
+    /**
+     * Waits for at least one match and returns all of them.
+     */
+    public List<WebElement> all(By locator) {
+        return all(locator, null);
+    }
+
+    public List<WebElement> all(By locator, Duration timeout) {
+        Step step = new Step("wait.all", locator.toString(), timeout);
+        try {
+            return step.succeeded(until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator), step.timeout));
+        } finally {
+            step.finish();
+        }
+    }
+
+    /**
+     * Waits until exactly {@code expected} elements match. Returns the last observed
+     * matches rather than throwing, so callers can assert on the size with a useful message.
+     */
+    public List<WebElement> count(By locator, int expected) {
+        return count(locator, expected, null);
+    }
+
+    public List<WebElement> count(By locator, int expected, Duration timeout) {
+        Step step = new Step("wait.count", locator.toString(), timeout);
+        AtomicReference<List<WebElement>> last = new AtomicReference<>();
+        try {
+            until(d -> {
+                List<WebElement> found = d.findElements(locator);
+                last.set(found);
+                return found.size() == expected;
+            }, step.timeout);
+            step.succeeded(null);
+        } catch (TimeoutException e) {
+            // Fall through with whatever was on the page last
+        } finally {
+            step.finish();
+        }
+        return last.get() != null ? last.get() : driver.findElements(locator);
+    }
+
+    /**
+     * Returns {@code true} as soon as nothing matches {@code locator}, or {@code false}
+     * if matches are still present after the timeout.
+     */
+    public boolean absent(By locator) {
+        return absent(locator, null);
+    }
+
+    public boolean absent(By locator, Duration timeout) {
+        Step step = new Step("wait.absent", locator.toString(), timeout);
+        try {
+            if (DOM_ENGINE && dom.await(locator, DomWaits.Condition.ABSENT, null, step.timeout).isPresent()) {
+                return step.succeeded(true);
+            }
+            until(d -> d.findElements(locator).isEmpty(), step.remaining());
+            return step.succeeded(true);
+        } catch (TimeoutException e) {
+            return false;
+        } finally {
+            step.finish();
+        }
+    }
+
+    public Alert alert() {
+        return alert(null);
+    }
+
+    public Alert alert(Duration timeout) {
+        Step step = new Step("wait.alert", "alert", timeout);
+        try {
+            return step.succeeded(awaitAlert(step.timeout));
+        } finally {
+            step.finish();
+        }
+    }
+
+    /**
+     * Waits for {@code condition} with the timeout learned for {@code site}, a name for
+     * what is being waited for that stays the same between runs.
+     */
+    public <T> T until(String site, ExpectedCondition<T> condition) {
+        Step step = new Step("wait.until", site, null);
+        try {
+            return step.succeeded(until(condition, step.timeout));
+        } finally {
+            step.finish();
+        }
+    }
+
+    private Alert awaitAlert(Duration timeout) {
+        DialogWatcher watcher = DOM_ENGINE ? DialogWatcher.forDriver(driver) : null;
+        if (watcher == null) {
+            return until(ExpectedConditions.alertIsPresent(), timeout);
+        }
+        long mark = watcher.mark();
+        try {
+            return driver.switchTo().alert();
+        } catch (NoAlertPresentException e) {
+            if (!watcher.awaitOpeningAfter(mark, timeout)) {
+                throw new TimeoutException("Expected an alert within " + timeout.toMillis() + " ms");
+            }
+            return driver.switchTo().alert();
+        }
+    }
+
+    private WebElement element(By locator, DomWaits.Condition condition, String text, Duration timeout,
+                               ExpectedCondition<WebElement> fallback) {
+        Step step = new Step("wait." + condition.name().toLowerCase(), locator.toString(), timeout);
+        try {
+            if (DOM_ENGINE) {
+                Optional<Object> found = dom.await(locator, condition, text, step.timeout);
+                if (found.isPresent() && found.get() instanceof WebElement) {
+                    return step.succeeded((WebElement) found.get());
+                }
+            }
+            return step.succeeded(until(fallback, step.remaining()));
+        } finally {
+            step.finish();
+        }
+    }
+
+    public <T> T until(ExpectedCondition<T> condition, Duration timeout) {
+        WebDriverWait wait = new WebDriverWait(driver, timeout);
+        wait.pollingEvery(POLL_INTERVAL);
+        return wait.until(condition);
+    }
+
+    /**
+     * One wait: its timeout, explicit or learned, and what it is recorded as. Each wait is
+     * timed into {@link CommandMetrics}; waits on a learned timeout also teach the
+     * {@link TimeoutModel}, whether they succeed or give up.
+     */
+    private final class Step {
+        private final String kind;
+        private final String site;
+        private final boolean learned;
+        private final Duration timeout;
+        private final long startNanos = System.nanoTime();
+        private boolean succeeded;
+
+        private Step(String kind, String site, Duration explicit) {
+            this.kind = kind;
+            this.site = site;
+            this.learned = explicit == null;
+            this.timeout = learned ? TimeoutModel.getInstance().timeout(profile, kind, site, Waits.this.timeout) : explicit;
+        }
+
+        private Duration remaining() {
+            Duration left = timeout.minusNanos(System.nanoTime() - startNanos);
+            return left.isNegative() ? Duration.ZERO : left;
+        }
+
+        private <T> T succeeded(T result) {
+            succeeded = true;
+            return result;
+        }
+
+        private void finish() {
+            long elapsed = System.nanoTime() - startNanos;
+            CommandMetrics.getInstance().record(kind, elapsed);
+            if (!learned) {
+                return;
+            }
+            if (succeeded) {
+                TimeoutModel.getInstance().record(profile, kind, site, elapsed);
+            } else {
+                TimeoutModel.getInstance().timedOut(profile, kind, site, timeout);
+            }
+        }
+    }
+}